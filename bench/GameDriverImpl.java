@@ -0,0 +1,82 @@
+import java.util.SplittableRandom;
+
+/**
+ * Default-package bridge that lets the gamebench benchmarks call into Game
+ */
+public class GameDriverImpl implements gamebench.GameDriver {
+    private final Game game;
+
+    public GameDriverImpl(long seed) {
+        game = new Game(new SplittableRandom(seed));
+    }
+
+    @Override
+    public long pack(int[][] tiles) {
+        return BitBoard.pack(tiles);
+    }
+
+    @Override
+    public void load(long board) {
+        game.setState(board, 0);
+    }
+
+    @Override
+    public boolean moveLeft() {
+        return game.moveLeft();
+    }
+
+    @Override
+    public boolean moveRight() {
+        return game.moveRight();
+    }
+
+    @Override
+    public boolean moveUp() {
+        return game.moveUp();
+    }
+
+    @Override
+    public boolean moveDown() {
+        return game.moveDown();
+    }
+
+    @Override
+    public Object getEmptyCells() {
+        return game.getEmptyCells();
+    }
+
+    @Override
+    public long addRandomTile() {
+        game.addRandomTile();
+        return game.getPackedBoard();
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return game.isGameOver();
+    }
+
+    @Override
+    public boolean hasWon() {
+        return game.hasWon();
+    }
+
+    @Override
+    public int[][] getBoard() {
+        return game.getBoard();
+    }
+
+    @Override
+    public void moveEach(long[] boards, int direction, long[] results, int[] scores, boolean[] changed) {
+        for (int i = 0; i < boards.length; i++) {
+            results[i] = BitBoard.move(boards[i], direction);
+            scores[i] = BitBoard.moveScore(boards[i], direction);
+            changed[i] = results[i] != boards[i];
+        }
+    }
+
+    @Override
+    public void moveBatch(long[] boards, int direction, long[] results, int[] scores, boolean[] changed) {
+        BoardBatch.move(boards, boards.length, direction, results, scores, changed);
+    }
+}
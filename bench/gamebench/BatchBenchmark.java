@@ -0,0 +1,65 @@
+package gamebench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One move applied to a batch of random mid-game boards: a per-board loop
+ * against BoardBatch. Scores are per board moved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BatchBenchmark.BOARDS)
+public class BatchBenchmark {
+    static final int BOARDS = 4096;
+
+    @Param({"0", "2"}) // BitBoard.LEFT, BitBoard.UP
+    public int direction;
+
+    private GameDriver driver;
+    private final long[] boards = new long[BOARDS];
+    private final long[] results = new long[BOARDS];
+    private final int[] scores = new int[BOARDS];
+    private final boolean[] changed = new boolean[BOARDS];
+
+    @Setup
+    public void setUp() {
+        driver = GameDriver.create(42);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < BOARDS; i++) {
+            long board = 0;
+            for (int cell = 0; cell < 16; cell++) {
+                if (random.nextInt(3) > 0) board |= (long) random.nextInt(1, 12) << (4 * cell);
+            }
+            boards[i] = board;
+        }
+    }
+
+    @Benchmark
+    public long[] perBoard() {
+        driver.moveEach(boards, direction, results, scores, changed);
+        return results;
+    }
+
+    @Benchmark
+    public long[] batch() {
+        driver.moveBatch(boards, direction, results, scores, changed);
+        return results;
+    }
+}
@@ -0,0 +1,134 @@
+package gamebench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the Game hot paths
+ * Read-only queries run on the fixture board loaded once per trial, so they
+ * measure only themselves. Mutating calls (moves, spawns) reload the board
+ * first so each starts from the same position; the load benchmark is their
+ * baseline. (A per-invocation @Setup would hide load() but adds more timer
+ * overhead than load() costs.)
+ *
+ * Run with: mvn -B -Pjmh package && java -jar target/benchmarks.jar -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    // A couple of tiles, early game
+    private static final int[][] SPARSE = {
+        {0, 0, 0, 2},
+        {0, 4, 0, 0},
+        {0, 0, 0, 0},
+        {2, 0, 0, 0}
+    };
+
+    // Mid game: few gaps, plenty of merges in every direction
+    private static final int[][] DENSE = {
+        {2, 2, 4, 8},
+        {16, 0, 16, 4},
+        {32, 64, 64, 0},
+        {128, 4, 2, 2}
+    };
+
+    // Full board with a single merge left (only up/down are legal)
+    private static final int[][] NEAR_GAME_OVER = {
+        {2, 4, 8, 16},
+        {32, 64, 128, 256},
+        {512, 1024, 2, 4},
+        {8, 16, 2, 64}
+    };
+
+    @Param({"sparse", "dense", "nearGameOver"})
+    public String fixture;
+
+    private GameDriver game;
+    private long board;
+
+    @Setup
+    public void setUp() {
+        game = GameDriver.create(42);
+        switch (fixture) {
+            case "sparse":
+                board = game.pack(SPARSE);
+                break;
+            case "dense":
+                board = game.pack(DENSE);
+                break;
+            default:
+                board = game.pack(NEAR_GAME_OVER);
+                break;
+        }
+        game.load(board);
+    }
+
+    @Benchmark
+    public void load() {
+        game.load(board);
+    }
+
+    @Benchmark
+    public boolean moveLeft() {
+        game.load(board);
+        return game.moveLeft();
+    }
+
+    @Benchmark
+    public boolean moveRight() {
+        game.load(board);
+        return game.moveRight();
+    }
+
+    @Benchmark
+    public boolean moveUp() {
+        game.load(board);
+        return game.moveUp();
+    }
+
+    @Benchmark
+    public boolean moveDown() {
+        game.load(board);
+        return game.moveDown();
+    }
+
+    @Benchmark
+    public Object getEmptyCells() {
+        return game.getEmptyCells();
+    }
+
+    @Benchmark
+    public long addRandomTile() {
+        game.load(board);
+        return game.addRandomTile();
+    }
+
+    @Benchmark
+    public boolean isGameOver() {
+        return game.isGameOver();
+    }
+
+    @Benchmark
+    public boolean hasWon() {
+        return game.hasWon();
+    }
+
+    @Benchmark
+    public int[][] getBoard() {
+        return game.getBoard();
+    }
+}
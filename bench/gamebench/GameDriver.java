@@ -0,0 +1,50 @@
+package gamebench;
+
+/**
+ * The Game operations the benchmarks measure
+ * The game classes live in the default package, which JMH benchmarks cannot
+ * import, so the default-package GameDriverImpl implements this interface and
+ * is loaded by name. The call site only ever sees one implementation, so the
+ * JIT inlines straight through it.
+ */
+public interface GameDriver {
+    /** Loads a board given as tile values (0, 2, 4, ...) and returns it packed */
+    long pack(int[][] tiles);
+
+    /** Restores a packed board with a zero score */
+    void load(long board);
+
+    boolean moveLeft();
+
+    boolean moveRight();
+
+    boolean moveUp();
+
+    boolean moveDown();
+
+    Object getEmptyCells();
+
+    long addRandomTile();
+
+    boolean isGameOver();
+
+    boolean hasWon();
+
+    int[][] getBoard();
+
+    /** Moves every board one by one with BitBoard.move / moveScore */
+    void moveEach(long[] boards, int direction, long[] results, int[] scores, boolean[] changed);
+
+    /** Moves every board with BoardBatch.move */
+    void moveBatch(long[] boards, int direction, long[] results, int[] scores, boolean[] changed);
+
+    static GameDriver create(long seed) {
+        try {
+            return (GameDriver) Class.forName("GameDriverImpl")
+                .getConstructor(long.class)
+                .newInstance(seed);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("GameDriverImpl missing from the benchmark build", e);
+        }
+    }
+}
@@ -1,14 +1,37 @@
-/**
- * Launcher class for the 2048 game
- * This is the entry point of the application
- */
-public class App {
-    public static void main(String[] args) {
-        // Create and display the game window
-        javax.swing.SwingUtilities.invokeLater(new Runnable() {
-            public void run() {
-                new GUI();
-            }
-        });
-    }
+/**
+ * Launcher class for the 2048 game
+ * This is the entry point of the application
+ *
+ * Optional arguments pick the board size: java App [rows] [cols]
+ * java App --tty [rows] [cols] plays in the terminal instead (see Terminal),
+ * without loading AWT or Swing.
+ * java App --auto [policy] opens the window with a MovePolicy already playing.
+ */
+public class App {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && (args[0].equals("--tty") || args[0].equals("--script"))) {
+            // Swing is only loaded below, so this path never touches it
+            String[] rest = java.util.Arrays.copyOfRange(args, args[0].equals("--tty") ? 1 : 0, args.length);
+            Terminal.main(rest);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--auto")) {
+            MovePolicy policy = MovePolicy.forName(args.length > 1 ? args[1] : "greedy");
+            javax.swing.SwingUtilities.invokeLater(() -> {
+                GUI gui = new GUI();
+                gui.setAutoplayPolicy(policy);
+                gui.startAutoplay();
+            });
+            return;
+        }
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : rows;
+        
+        // Create and display the game window
+        javax.swing.SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                new GUI(rows, cols);
+            }
+        });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays a 4x4 Game with a MovePolicy on a background thread, as fast as asked
+ * The thread owns the game while it runs; nothing else may touch it until
+ * stop() returns. A viewer calls sample() at its own pace (e.g. once per
+ * screen refresh) and gets the newest board: the player copies one only
+ * when asked, so boards in between are skipped rather than queued, and a
+ * slow viewer never slows the player down.
+ */
+public final class AutoPlayer {
+    // Behind schedule by more than this, the pacing starts over instead of catching up
+    private static final long MAX_LAG_NANOS = 100_000_000L;
+
+    /**
+     * The game as it was at one moment
+     */
+    public static final class Snapshot {
+        private final byte[] exponents;
+        private final int score;
+        private final long moves;
+        private final long nanos;
+        private final boolean won;
+        private final boolean over;
+
+        Snapshot(byte[] exponents, int score, long moves, long nanos, boolean won, boolean over) {
+            this.exponents = exponents;
+            this.score = score;
+            this.moves = moves;
+            this.nanos = nanos;
+            this.won = won;
+            this.over = over;
+        }
+
+        /**
+         * Gets the board row by row, as from Game.getExponents()
+         */
+        public byte[] getExponents() {
+            return exponents;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Gets the number of moves played since start()
+         */
+        public long getMoves() {
+            return moves;
+        }
+
+        /**
+         * Gets when the snapshot was taken (System.nanoTime())
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        public boolean hasWon() {
+            return won;
+        }
+
+        /**
+         * Returns true if the player has stopped: no legal move was left (or the policy gave up)
+         */
+        public boolean isOver() {
+            return over;
+        }
+    }
+
+    private final Game game;
+    private final MovePolicy policy;
+    private final RandomGenerator random;
+
+    private volatile int movesPerSecond;
+    private volatile boolean stopping;
+    private volatile boolean snapshotWanted;
+    private volatile Snapshot latest;
+    private Thread thread;
+
+    /**
+     * @param random the policy's generator, used only by the player thread
+     */
+    public AutoPlayer(Game game, MovePolicy policy, RandomGenerator random) {
+        if (!game.isPacked()) {
+            throw new IllegalArgumentException("Autoplay needs a 4x4 game");
+        }
+        this.game = game;
+        this.policy = policy;
+        this.random = random;
+    }
+
+    /**
+     * Starts playing from the game's current position
+     *
+     * @param movesPerSecond speed limit, 0 for as fast as possible
+     */
+    public synchronized void start(int movesPerSecond) {
+        if (thread != null) throw new IllegalStateException("Already started");
+        setMovesPerSecond(movesPerSecond);
+        latest = snapshot(0, game.isGameOver());
+        thread = new Thread(this::play, "autoplay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void setMovesPerSecond(int movesPerSecond) {
+        if (movesPerSecond < 0) {
+            throw new IllegalArgumentException("movesPerSecond must not be negative: " + movesPerSecond);
+        }
+        this.movesPerSecond = movesPerSecond;
+    }
+
+    public int getMovesPerSecond() {
+        return movesPerSecond;
+    }
+
+    /**
+     * Stops the player and waits for it, after which the game may be used again
+     */
+    public synchronized void stop() {
+        if (thread == null) return;
+        stopping = true;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Gets the newest snapshot and asks the player for a fresh one
+     * Cheap enough to call every frame; returns the same snapshot until the player has made another.
+     */
+    public Snapshot sample() {
+        Snapshot snapshot = latest;
+        if (!snapshot.isOver()) snapshotWanted = true;
+        return snapshot;
+    }
+
+    private void play() {
+        long moves = 0;
+        int rate = movesPerSecond;
+        long paceStart = System.nanoTime();
+        long paced = 0; // moves since paceStart
+        while (!stopping) {
+            if (snapshotWanted) {
+                snapshotWanted = false;
+                latest = snapshot(moves, false);
+            }
+            if (movesPerSecond != rate) {
+                rate = movesPerSecond;
+                paceStart = System.nanoTime();
+                paced = 0;
+            }
+            if (rate > 0) {
+                long wait = paceStart + paced * 1_000_000_000L / rate - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                    continue;
+                }
+                if (wait < -MAX_LAG_NANOS) {
+                    paceStart = System.nanoTime();
+                    paced = 0;
+                }
+            }
+            int direction = policy.chooseMove(game.getPackedBoard(), random);
+            if (direction < 0 || !game.move(direction)) {
+                latest = snapshot(moves, true);
+                return;
+            }
+            moves++;
+            paced++;
+        }
+        latest = snapshot(moves, game.isGameOver());
+    }
+
+    private Snapshot snapshot(long moves, boolean over) {
+        byte[] exponents = new byte[BitBoard.CELLS];
+        game.getExponents(exponents);
+        return new Snapshot(exponents, game.getScore(), moves, System.nanoTime(), game.hasWon(), over);
+    }
+}
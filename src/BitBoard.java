@@ -0,0 +1,387 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Bitboard engine for the 4x4 game
+ * The whole board is packed into a single long: every cell holds a 4-bit
+ * exponent (0 = empty, 1 = 2, 2 = 4, ... 15 = 32768).
+ *
+ * Layout: cell (row, col) lives in the nibble at bit 4 * (4 * row + col),
+ * so row r occupies bits 16r..16r+15 and "left" is toward the low nibble.
+ *
+ * Moves are table driven: every possible 16-bit row is slid ahead of time,
+ * so a move is four table lookups (plus two transposes for up/down). The
+ * tables are cached on disk between runs (see TableCache).
+ */
+public final class BitBoard {
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int UP = 2;
+    public static final int DOWN = 3;
+
+    public static final int SIZE = 4;
+    public static final int CELLS = SIZE * SIZE;
+
+    private static final long ROW_MASK = 0xFFFFL;
+    private static final int ROWS = 1 << 16;
+    // Bump whenever slideLeft() changes, so stale cached tables are rebuilt
+    private static final long TABLE_VERSION = 1;
+    // TableCache.fingerprint() of the generated tables; update together with TABLE_VERSION
+    private static final long TABLE_FINGERPRINT = 0x0EEAB1F0A1B8B93BL;
+
+    // Row after sliding left / right, and points scored by that slide
+    private static final char[] ROW_LEFT = new char[ROWS];
+    private static final char[] ROW_RIGHT = new char[ROWS];
+    private static final int[] ROW_SCORE = new int[ROWS];
+    // Bit LEFT / RIGHT set when sliding the row that way changes it
+    private static final byte[] ROW_MOVES = new byte[ROWS];
+
+    static {
+        // Every move result comes from these tables, so a cached copy must match exactly
+        if (!TableCache.load("bitboard-rows", TABLE_VERSION, ROW_LEFT, ROW_RIGHT, ROW_SCORE, ROW_MOVES)
+            || TableCache.fingerprint(ROW_LEFT, ROW_RIGHT, ROW_SCORE, ROW_MOVES) != TABLE_FINGERPRINT) {
+            generateTables();
+            TableCache.save("bitboard-rows", TABLE_VERSION, ROW_LEFT, ROW_RIGHT, ROW_SCORE, ROW_MOVES);
+        }
+    }
+
+    private BitBoard() {
+    }
+
+    private static void generateTables() {
+        int[] line = new int[SIZE];
+        for (int row = 0; row < ROWS; row++) {
+            for (int i = 0; i < SIZE; i++) {
+                line[i] = (row >>> (4 * i)) & 0xF;
+            }
+            ROW_SCORE[row] = slideLeft(line);
+
+            int result = 0;
+            for (int i = 0; i < SIZE; i++) {
+                result |= line[i] << (4 * i);
+            }
+            ROW_LEFT[row] = (char) result;
+            ROW_RIGHT[reverseRow(row)] = (char) reverseRow(result);
+        }
+        for (int row = 0; row < ROWS; row++) {
+            int moves = 0;
+            if (ROW_LEFT[row] != row) moves |= 1 << LEFT;
+            if (ROW_RIGHT[row] != row) moves |= 1 << RIGHT;
+            ROW_MOVES[row] = (byte) moves;
+        }
+    }
+
+    /**
+     * Slides one row of exponents toward index 0 in place
+     * Each tile merges at most once; 32768 tiles (exponent 15) never merge
+     * because the result would not fit in a nibble.
+     * Returns the points scored by the merges.
+     */
+    private static int slideLeft(int[] line) {
+        int points = 0;
+        int write = 0;
+        int pending = 0; // tile waiting for a possible merge partner
+        for (int read = 0; read < line.length; read++) {
+            int value = line[read];
+            if (value == 0) continue;
+            if (pending == 0) {
+                pending = value;
+            } else if (pending == value && value < 15) {
+                line[write++] = value + 1;
+                points += 1 << (value + 1);
+                pending = 0;
+            } else {
+                line[write++] = pending;
+                pending = value;
+            }
+        }
+        if (pending != 0) line[write++] = pending;
+        while (write < line.length) line[write++] = 0;
+        return points;
+    }
+
+    private static int reverseRow(int row) {
+        return ((row & 0xF) << 12) | ((row & 0xF0) << 4)
+            | ((row >>> 4) & 0xF0) | ((row >>> 12) & 0xF);
+    }
+
+    /**
+     * Mirrors the board along its main diagonal: (row, col) becomes (col, row)
+     */
+    public static long transpose(long board) {
+        long a1 = board & 0xF0F00F0FF0F00F0FL;
+        long a2 = board & 0x0000F0F00000F0F0L;
+        long a3 = board & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    /**
+     * Mirrors the board left to right: (row, col) becomes (row, 3 - col)
+     */
+    public static long mirrorColumns(long board) {
+        long a = ((board & 0x0F0F0F0F0F0F0F0FL) << 4) | ((board >>> 4) & 0x0F0F0F0F0F0F0F0FL);
+        return ((a & 0x00FF00FF00FF00FFL) << 8) | ((a >>> 8) & 0x00FF00FF00FF00FFL);
+    }
+
+    /**
+     * Mirrors the board top to bottom: (row, col) becomes (3 - row, col)
+     */
+    public static long mirrorRows(long board) {
+        return (board >>> 48) | ((board >>> 16) & 0xFFFF0000L)
+            | ((board << 16) & 0xFFFF00000000L) | (board << 48);
+    }
+
+    /**
+     * Gets the smallest of the board's 8 rotations and reflections
+     * All 8 play identically (same moves, mirrored), so a cache keyed by the
+     * canonical form stores one entry for all of them.
+     */
+    public static long canonical(long board) {
+        long flipped = mirrorRows(board);
+        long t = transpose(board);
+        long tFlipped = mirrorRows(t);
+        long a = Math.min(Math.min(board, flipped), Math.min(mirrorColumns(board), mirrorColumns(flipped)));
+        long b = Math.min(Math.min(t, tFlipped), Math.min(mirrorColumns(t), mirrorColumns(tFlipped)));
+        return Math.min(a, b);
+    }
+
+    private static long slideRows(long board, char[] table) {
+        return (long) table[(int) (board & ROW_MASK)]
+            | (long) table[(int) ((board >>> 16) & ROW_MASK)] << 16
+            | (long) table[(int) ((board >>> 32) & ROW_MASK)] << 32
+            | (long) table[(int) (board >>> 48)] << 48;
+    }
+
+    /** Slides the four rows left, no transpose (for BoardBatch) */
+    static long slideRowsLeft(long board) {
+        return slideRows(board, ROW_LEFT);
+    }
+
+    /** Slides the four rows right, no transpose (for BoardBatch) */
+    static long slideRowsRight(long board) {
+        return slideRows(board, ROW_RIGHT);
+    }
+
+    /** Points scored by sliding the four rows either way */
+    static int scoreRows(long board) {
+        return ROW_SCORE[(int) (board & ROW_MASK)]
+            + ROW_SCORE[(int) ((board >>> 16) & ROW_MASK)]
+            + ROW_SCORE[(int) ((board >>> 32) & ROW_MASK)]
+            + ROW_SCORE[(int) (board >>> 48)];
+    }
+
+    /**
+     * Returns the board after sliding in the given direction (no tile is spawned)
+     * The result equals the input when the move changes nothing.
+     */
+    public static long move(long board, int direction) {
+        switch (direction) {
+            case LEFT:
+                return slideRows(board, ROW_LEFT);
+            case RIGHT:
+                return slideRows(board, ROW_RIGHT);
+            case UP:
+                return transpose(slideRows(transpose(board), ROW_LEFT));
+            case DOWN:
+                return transpose(slideRows(transpose(board), ROW_RIGHT));
+            default:
+                throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * Returns the points a move in the given direction would score
+     * Merges score the same whichever way a line is slid, so only the
+     * orientation (rows or columns) matters.
+     */
+    public static int moveScore(long board, int direction) {
+        return direction == LEFT || direction == RIGHT
+            ? scoreRows(board)
+            : scoreRows(transpose(board));
+    }
+
+    /**
+     * Works out where each tile goes when sliding in the given direction
+     * Fills destinations[cell] with the cell each tile slides to (empty cells
+     * are left alone) and flags the destination cells that hold a merged tile.
+     * Mirrors slideLeft(), but tracks positions instead of using the tables,
+     * so it is meant for display, not search.
+     */
+    public static void describeMove(long board, int direction, short[] destinations, boolean[] merged) {
+        for (int line = 0; line < SIZE; line++) {
+            int write = 0;
+            int pendingCell = -1;
+            int pending = 0;
+            for (int i = 0; i < SIZE; i++) {
+                int cell = lineCell(direction, line, i);
+                int value = (int) (board >>> (4 * cell)) & 0xF;
+                if (value == 0) continue;
+                if (pending == 0) {
+                    pending = value;
+                    pendingCell = cell;
+                } else if (pending == value && value < 15) {
+                    int target = lineCell(direction, line, write++);
+                    destinations[pendingCell] = (short) target;
+                    destinations[cell] = (short) target;
+                    merged[target] = true;
+                    pending = 0;
+                } else {
+                    destinations[pendingCell] = (short) lineCell(direction, line, write++);
+                    pending = value;
+                    pendingCell = cell;
+                }
+            }
+            if (pending != 0) {
+                destinations[pendingCell] = (short) lineCell(direction, line, write);
+            }
+        }
+    }
+
+    /**
+     * Cell index of the i-th cell of a line, counted from the side tiles slide toward
+     */
+    private static int lineCell(int direction, int line, int i) {
+        switch (direction) {
+            case LEFT:
+                return SIZE * line + i;
+            case RIGHT:
+                return SIZE * line + (SIZE - 1 - i);
+            case UP:
+                return SIZE * i + line;
+            default:
+                return SIZE * (SIZE - 1 - i) + line;
+        }
+    }
+
+    /**
+     * Gets the exponent stored at (row, col), 0 when empty
+     */
+    public static int get(long board, int row, int col) {
+        return (int) (board >>> (4 * (SIZE * row + col))) & 0xF;
+    }
+
+    /**
+     * Returns the board with the exponent at (row, col) replaced
+     */
+    public static long set(long board, int row, int col, int exponent) {
+        int shift = 4 * (SIZE * row + col);
+        return (board & ~(0xFL << shift)) | ((long) exponent << shift);
+    }
+
+    /**
+     * Counts the empty cells
+     */
+    public static int countEmpty(long board) {
+        // Fold each nibble to a single "non-zero" bit, then count the zeros
+        long x = board | (board >>> 1);
+        x |= x >>> 2;
+        return CELLS - Long.bitCount(x & 0x1111111111111111L);
+    }
+
+    /**
+     * Returns a 16-bit mask with bit (4 * row + col) set for every empty cell
+     */
+    public static int emptyMask(long board) {
+        // One "occupied" bit per nibble, then gather bits 0, 4, 8, ... into 0..15
+        long x = board | (board >>> 1);
+        x |= x >>> 2;
+        x &= 0x1111111111111111L;
+        x = (x | (x >>> 3)) & 0x0303030303030303L;
+        x = (x | (x >>> 6)) & 0x000F000F000F000FL;
+        x = (x | (x >>> 12)) & 0x000000FF000000FFL;
+        x = (x | (x >>> 24)) & 0xFFFFL;
+        return ~(int) x & 0xFFFF;
+    }
+
+    /**
+     * Returns the position of the n-th (0-based) set bit of mask
+     */
+    public static int select(int mask, int n) {
+        while (n-- > 0) {
+            mask &= mask - 1; // drop the lowest set bit
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Returns the board with a new tile in a uniformly random empty cell
+     * - 90% chance of a 2, 10% chance of a 4
+     * - a full board is returned unchanged
+     */
+    public static long spawn(long board, RandomGenerator random) {
+        int empty = emptyMask(board);
+        if (empty == 0) return board;
+
+        int cell = select(empty, random.nextInt(Integer.bitCount(empty)));
+        long exponent = random.nextInt(10) < 9 ? 1 : 2;
+        return board | exponent << (4 * cell);
+    }
+
+    /**
+     * Gets the largest exponent on the board
+     */
+    public static int maxExponent(long board) {
+        int max = 0;
+        while (board != 0) {
+            max = Math.max(max, (int) (board & 0xF));
+            board >>>= 4;
+        }
+        return max;
+    }
+
+    /**
+     * Returns true if at least one direction changes the board
+     */
+    public static boolean canMove(long board) {
+        return legalMoves(board) != 0;
+    }
+
+    /**
+     * Returns a bitmask of the directions that change the board
+     * (bit LEFT, RIGHT, UP, DOWN set when that move is legal)
+     */
+    public static int legalMoves(long board) {
+        // Rows give LEFT/RIGHT; the transposed rows are columns, i.e. UP/DOWN
+        long columns = transpose(board);
+        return rowMoves(board) | rowMoves(columns) << UP;
+    }
+
+    private static int rowMoves(long board) {
+        return ROW_MOVES[(int) (board & ROW_MASK)]
+            | ROW_MOVES[(int) ((board >>> 16) & ROW_MASK)]
+            | ROW_MOVES[(int) ((board >>> 32) & ROW_MASK)]
+            | ROW_MOVES[(int) (board >>> 48)];
+    }
+
+    /**
+     * Packs a board of tile values (0, 2, 4, 8, ...) into a long
+     */
+    public static long pack(int[][] tiles) {
+        long board = 0;
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int value = tiles[row][col];
+                int exponent = value == 0 ? 0 : Integer.numberOfTrailingZeros(value);
+                board = set(board, row, col, exponent);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Unpacks a board into tile values (0, 2, 4, 8, ...)
+     */
+    public static int[][] unpack(long board) {
+        int[][] tiles = new int[SIZE][SIZE];
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int exponent = get(board, row, col);
+                tiles[row][col] = exponent == 0 ? 0 : 1 << exponent;
+            }
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Applies one move to many packed 4x4 boards at once
+ * For search and simulation code that holds boards in a long[] rather than
+ * in Game objects. Nothing is allocated: callers pass the output arrays.
+ *
+ * The work is split into passes over the whole batch. The transposes that
+ * turn up/down into left/right are pure shifts and masks over a long[],
+ * which the JIT compiles to SIMD loops; the row-table lookups in between
+ * are independent per board, so the CPU overlaps their loads.
+ */
+public final class BoardBatch {
+    private BoardBatch() {
+    }
+
+    /**
+     * Slides boards[0..count) in one direction (no tiles are spawned)
+     *
+     * @param direction BitBoard.LEFT, RIGHT, UP or DOWN
+     * @param results   receives each board after the move (may be boards itself)
+     * @param scores    receives the points each move scores; may be null
+     * @param changed   receives true where the move changed the board; may be null
+     */
+    public static void move(long[] boards, int count, int direction,
+                            long[] results, int[] scores, boolean[] changed) {
+        if (count > boards.length || count > results.length
+            || (scores != null && count > scores.length) || (changed != null && count > changed.length)) {
+            throw new IllegalArgumentException("Arrays shorter than the batch: " + count);
+        }
+        if (direction < BitBoard.LEFT || direction > BitBoard.DOWN) {
+            throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+        boolean columns = direction == BitBoard.UP || direction == BitBoard.DOWN;
+        boolean left = direction == BitBoard.LEFT || direction == BitBoard.UP;
+
+        // Up/down slide the transposed boards left/right, then transpose back
+        if (columns) {
+            transpose(boards, results, count);
+        } else if (results != boards) {
+            System.arraycopy(boards, 0, results, 0, count);
+        }
+        // Transposing is one-to-one, so comparing transposed boards is enough
+        for (int i = 0; i < count; i++) {
+            long before = results[i];
+            long after = left ? BitBoard.slideRowsLeft(before) : BitBoard.slideRowsRight(before);
+            results[i] = after;
+            if (scores != null) scores[i] = BitBoard.scoreRows(before);
+            if (changed != null) changed[i] = after != before;
+        }
+        if (columns) {
+            transpose(results, results, count);
+        }
+    }
+
+    /**
+     * BitBoard.transpose over a whole array, written as one flat loop so it vectorizes
+     */
+    static void transpose(long[] boards, long[] results, int count) {
+        for (int i = 0; i < count; i++) {
+            long board = boards[i];
+            long a = (board & 0xF0F00F0FF0F00F0FL)
+                | ((board & 0x0000F0F00000F0F0L) << 12)
+                | ((board & 0x0F0F00000F0F0000L) >>> 12);
+            results[i] = (a & 0xFF00FF0000FF00FFL)
+                | ((a & 0x00FF00FF00000000L) >>> 24)
+                | ((a & 0x00000000FF00FF00L) << 24);
+        }
+    }
+}
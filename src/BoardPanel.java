@@ -0,0 +1,244 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import javax.swing.*;
+
+/**
+ * Custom-painted 2048 board
+ * Replaces the grid of JLabels: every tile face (one per exponent) is drawn
+ * once into an atlas image, and painting a cell is a single image copy.
+ *
+ * setBoard() compares the new exponents, cell by cell, with the ones on
+ * screen and only repaints the cells that changed, so Swing never re-lays
+ * out the board.
+ *
+ * animate() plays a MoveResult: tiles slide from their old cells to their new
+ * ones, then merged tiles pop and the spawned tile grows in. A Swing timer
+ * ticks at 60 fps and each frame is placed by elapsed time, so a late frame
+ * never slows the animation down.
+ */
+public class BoardPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private static final int EXPONENTS = GridBoard.MAX_EXPONENT + 1;
+    private static final int BORDER = 2;
+
+    private static final int FRAME_MILLIS = 1000 / 60;
+    private static final long SLIDE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long POP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final double POP_GROWTH = 0.15;
+
+    private final int rows;
+    private final int cols;
+    private final int tileSize;
+    private final int margin;
+    private final BufferedImage atlas;
+    private final byte[] shown; // exponents on screen, row by row
+
+    // Move being animated, copied so the caller can reuse its MoveResult
+    private final MoveResult animation = new MoveResult();
+    private boolean animating;
+    private long animationStart;
+    private Runnable onFinished;
+    private final Timer frameTimer;
+
+    /**
+     * Creates the board and renders the tile atlas
+     *
+     * @param tileColors background per exponent (index 0 = empty); higher
+     *                   exponents reuse the last color
+     */
+    public BoardPanel(int rows, int cols, int tileSize, int margin, Color boardColor,
+                      Color[] tileColors, Color darkText, Color lightText) {
+        this.rows = rows;
+        this.cols = cols;
+        this.tileSize = tileSize;
+        this.margin = margin;
+        this.shown = new byte[rows * cols];
+        setBackground(boardColor);
+        setOpaque(true);
+        setPreferredSize(new Dimension(
+            cols * tileSize + (cols + 1) * margin,
+            rows * tileSize + (rows + 1) * margin));
+
+        atlas = renderAtlas(boardColor, tileColors, darkText, lightText);
+
+        frameTimer = new Timer(FRAME_MILLIS, e -> nextFrame());
+        frameTimer.setCoalesce(true);
+    }
+
+    private BufferedImage renderAtlas(Color boardColor, Color[] tileColors,
+                                      Color darkText, Color lightText) {
+        BufferedImage image = new BufferedImage(EXPONENTS * tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        // Font size depends on the number of digits (48/36/28 at 100px tiles)
+        Font[] fonts = new Font[11];
+        for (int digits = 1; digits < fonts.length; digits++) {
+            int percent = digits <= 2 ? 48 : digits == 3 ? 36 : digits == 4 ? 28 : 130 / digits;
+            fonts[digits] = new Font("Corrier New", Font.BOLD, Math.max(6, tileSize * percent / 100));
+        }
+
+        for (int exponent = 0; exponent < EXPONENTS; exponent++) {
+            int x = exponent * tileSize;
+            g.setColor(boardColor);
+            g.fillRect(x, 0, tileSize, tileSize);
+            g.setColor(tileColors[Math.min(exponent, tileColors.length - 1)]);
+            g.fillRect(x + BORDER, BORDER, tileSize - 2 * BORDER, tileSize - 2 * BORDER);
+            if (exponent == 0) continue;
+
+            int value = 1 << exponent;
+            String text = String.valueOf(value);
+            g.setFont(fonts[text.length()]);
+            g.setColor(value <= 4 ? darkText : lightText);
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(text,
+                x + (tileSize - metrics.stringWidth(text)) / 2,
+                (tileSize - metrics.getHeight()) / 2 + metrics.getAscent());
+        }
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Shows a board, repainting only the cells whose tile changed
+     * Cancels any running animation (without calling its callback).
+     *
+     * @param exponents the board row by row, as from Game.getExponents()
+     */
+    public void setBoard(byte[] exponents) {
+        if (animating) {
+            stopAnimation();
+            repaint();
+        }
+        for (int cell = 0; cell < shown.length; cell++) {
+            if (shown[cell] != exponents[cell]) {
+                shown[cell] = exponents[cell];
+                repaint(cellX(cell % cols), cellY(cell / cols), tileSize, tileSize);
+            }
+        }
+    }
+
+    /**
+     * Animates a move from its before board to its after board
+     * A move started while another is still playing replaces it (the old
+     * callback is dropped), so callers that queue moves should wait for onFinished.
+     *
+     * @param move       the move to play; copied, so the caller may reuse it
+     * @param onFinished run on the EDT once the animation ends (may be null)
+     */
+    public void animate(MoveResult move, Runnable onFinished) {
+        if (animating) stopAnimation();
+
+        animation.copyFrom(move);
+        System.arraycopy(move.after, 0, shown, 0, shown.length);
+
+        this.onFinished = onFinished;
+        animating = true;
+        animationStart = System.nanoTime();
+        frameTimer.start();
+        repaint();
+    }
+
+    /**
+     * Returns true while a move animation is playing
+     */
+    public boolean isAnimating() {
+        return animating;
+    }
+
+    private void nextFrame() {
+        if (System.nanoTime() - animationStart >= SLIDE_NANOS + POP_NANOS) {
+            finishAnimation();
+        }
+        repaint();
+    }
+
+    private void finishAnimation() {
+        Runnable callback = onFinished;
+        stopAnimation();
+        repaint();
+        if (callback != null) callback.run();
+    }
+
+    private void stopAnimation() {
+        animating = false;
+        onFinished = null;
+        frameTimer.stop();
+    }
+
+    private int cellX(int col) {
+        return margin + col * (tileSize + margin);
+    }
+
+    private int cellY(int row) {
+        return margin + row * (tileSize + margin);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g); // board background
+        if (animating) {
+            paintAnimation(g, System.nanoTime() - animationStart);
+            return;
+        }
+
+        Rectangle clip = g.getClipBounds();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int x = cellX(col);
+                int y = cellY(row);
+                if (clip != null && !clip.intersects(x, y, tileSize, tileSize)) continue;
+
+                drawTile(g, shown[row * cols + col], x, y, 1.0);
+            }
+        }
+    }
+
+    private void paintAnimation(Graphics g, long elapsed) {
+        // Empty cells underneath everything that moves
+        for (int cell = 0; cell < shown.length; cell++) {
+            drawTile(g, 0, cellX(cell % cols), cellY(cell / cols), 1.0);
+        }
+
+        if (elapsed < SLIDE_NANOS) {
+            // Slide: each tile of the old board moves toward its destination
+            double progress = (double) elapsed / SLIDE_NANOS;
+            for (int cell = 0; cell < shown.length; cell++) {
+                int target = animation.getDestination(cell);
+                if (target < 0) continue;
+                double x = cellX(cell % cols) + (cellX(target % cols) - cellX(cell % cols)) * progress;
+                double y = cellY(cell / cols) + (cellY(target / cols) - cellY(cell / cols)) * progress;
+                drawTile(g, animation.getBefore(cell), (int) Math.round(x), (int) Math.round(y), 1.0);
+            }
+            return;
+        }
+
+        // Pop: merged tiles swell and settle, the spawned tile grows in
+        double progress = Math.min(1.0, (double) (elapsed - SLIDE_NANOS) / POP_NANOS);
+        for (int cell = 0; cell < shown.length; cell++) {
+            int exponent = animation.getAfter(cell);
+            if (exponent == 0) continue;
+            double scale = 1.0;
+            if (cell == animation.getSpawnCell()) {
+                scale = progress;
+            } else if (animation.isMerged(cell)) {
+                scale = 1.0 + POP_GROWTH * Math.sin(Math.PI * progress);
+            }
+            drawTile(g, exponent, cellX(cell % cols), cellY(cell / cols), scale);
+        }
+    }
+
+    /**
+     * Draws one tile face from the atlas, scaled around the cell's centre
+     */
+    private void drawTile(Graphics g, int exponent, int x, int y, double scale) {
+        int size = (int) Math.round(tileSize * scale);
+        if (size <= 0) return;
+        int dx = x + (tileSize - size) / 2;
+        int dy = y + (tileSize - size) / 2;
+        int sx = exponent * tileSize;
+        g.drawImage(atlas, dx, dy, dx + size, dy + size, sx, 0, sx + tileSize, tileSize, null);
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, thread-safe cache from boards to search values, shared by any search or policy
+ * Boards are keyed by BitBoard.canonical, so the 8 rotations and reflections
+ * of a position share one entry. Each value is stored with the depth it
+ * was searched to, and a lookup only hits if that depth is deep enough.
+ *
+ * The table is 4-way set-associative with a fixed number of entries, so its
+ * memory never grows. When a set is full, a CLOCK hand picks the victim:
+ * entries read since the hand last passed get a second chance. Every entry
+ * is two longs, the data word and (key XOR data), so a torn write from
+ * another thread reads as a miss instead of a wrong value. No locks are taken.
+ */
+public final class EvalCache {
+    /** Returned by get() when the board is not stored deep enough */
+    public static final float MISS = Float.NaN;
+
+    private static final int WAYS = 4;
+
+    private final AtomicLongArray slots;
+    // CLOCK state; racy on purpose, a lost update only costs one eviction choice
+    private final byte[] referenced;
+    private final byte[] hands;
+    private final int setMask;
+
+    /**
+     * Creates a cache of 2^bits entries (17 bytes each)
+     */
+    public EvalCache(int bits) {
+        if (bits < 3 || bits > 28) {
+            throw new IllegalArgumentException("bits must be in 3..28: " + bits);
+        }
+        slots = new AtomicLongArray(2 << bits);
+        referenced = new byte[1 << bits];
+        hands = new byte[1 << (bits - 2)];
+        setMask = (1 << (bits - 2)) - 1;
+    }
+
+    private int set(long key) {
+        // Murmur3 finalizer so neighbouring boards spread over the table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h & setMask;
+    }
+
+    /**
+     * Gets the stored value if the board (or a symmetric one) was searched to at least minDepth, otherwise MISS
+     */
+    public float get(long board, int minDepth) {
+        long key = BitBoard.canonical(board);
+        int first = set(key) * WAYS;
+        for (int entry = first; entry < first + WAYS; entry++) {
+            long data = slots.getOpaque(2 * entry);
+            long check = slots.getOpaque(2 * entry + 1);
+            if ((check ^ data) == key && data != 0 && (int) (data >>> 32) >= minDepth) {
+                if (referenced[entry] == 0) referenced[entry] = 1;
+                return Float.intBitsToFloat((int) data);
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores the value of a board searched to the given depth
+     * An entry for the same board is only replaced by an equal or deeper search.
+     */
+    public void put(long board, int depth, float value) {
+        long key = BitBoard.canonical(board);
+        long data = (long) depth << 32 | (Float.floatToRawIntBits(value) & 0xFFFFFFFFL);
+        int set = set(key);
+        int first = set * WAYS;
+        int free = -1;
+        for (int entry = first; entry < first + WAYS; entry++) {
+            long old = slots.getOpaque(2 * entry);
+            long check = slots.getOpaque(2 * entry + 1);
+            if (old == 0 && check == 0) {
+                if (free < 0) free = entry;
+            } else if ((check ^ old) == key) {
+                if ((int) (old >>> 32) <= depth) write(entry, key, data);
+                return;
+            }
+        }
+        if (free < 0) free = victim(set);
+        write(free, key, data);
+        referenced[free] = 0;
+    }
+
+    /** Advances the set's CLOCK hand past referenced entries, clearing them, and returns the first other one */
+    private int victim(int set) {
+        int hand = hands[set];
+        int first = set * WAYS;
+        while (referenced[first + hand] != 0) {
+            referenced[first + hand] = 0;
+            hand = (hand + 1) & (WAYS - 1);
+        }
+        hands[set] = (byte) ((hand + 1) & (WAYS - 1));
+        return first + hand;
+    }
+
+    private void write(int entry, long key, long data) {
+        slots.setOpaque(2 * entry, data);
+        slots.setOpaque(2 * entry + 1, key ^ data);
+    }
+
+    /**
+     * Empties every entry
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.setOpaque(i, 0);
+        }
+        Arrays.fill(referenced, (byte) 0);
+    }
+}
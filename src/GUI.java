@@ -1,6 +1,8 @@
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
 import javax.swing.*;
 
 /**
@@ -8,9 +10,15 @@ import javax.swing.*;
  * Handles all visual components and user input
  */
 public class GUI extends JFrame {
-    private static final int GRID_SIZE = 4;
     private static final int TILE_SIZE = 100;
     private static final int TILE_MARGIN = 12;
+    private static final int DEFAULT_SIZE = 4;
+    private static final int MAX_QUEUED_MOVES = 4;
+    private static final long HINT_BUDGET_MILLIS = 50;
+    private static final String[] DIRECTION_NAMES = {"Left", "Right", "Up", "Down"};
+    // Autoplay speed limits in moves per second, cycled with +/-; 0 = no limit
+    private static final int[] AUTOPLAY_SPEEDS = {10, 60, 250, 1000, 4000, 16000, 0};
+    private static final int DEFAULT_AUTOPLAY_SPEED = 3;
 
     // =====================================================================
     // COLOR CONFIGURATION — Change these to customize the look of the game!
@@ -51,19 +59,49 @@ public class GUI extends JFrame {
 
     // =====================================================================
 
-    private JLabel[][] tiles;
+    private BoardPanel boardPanel;
     private JLabel scoreLabel;
     private JLabel statusLabel;
     private Game game;
-    private JPanel gamePanel;
+    
+    // Keys pressed while a move is still animating, played in order afterwards
+    private final ArrayDeque<Integer> queuedMoves = new ArrayDeque<>();
+    private final MoveResult lastMove = new MoveResult();
+    private final byte[] exponents;
+    
+    // Hints are searched off the EDT; hint is the search the label may show
+    private final HintEngine hintEngine = new HintEngine(HINT_BUDGET_MILLIS);
+    private HintEngine.Hint hint;
+    
+    // Autoplay: a policy plays on its own thread, the frame timer shows its newest board
+    private MovePolicy autoPolicy = MovePolicy.GREEDY;
+    private AutoPlayer autoPlayer;
+    private AutoPlayer.Snapshot shownSnapshot;
+    private double shownRate; // moves/s between the last two boards shown
+    private Timer autoFrameTimer;
+    private int autoSpeed = DEFAULT_AUTOPLAY_SPEED;
+    private JButton autoButton;
+    
+    // The win and game-over dialogs each pop up at most once per game
+    private boolean winAnnounced;
+    private boolean gameOverAnnounced;
     
     public GUI() {
+        this(DEFAULT_SIZE, DEFAULT_SIZE);
+    }
+    
+    /**
+     * Creates the window for a rows x cols game
+     * Boards bigger than 4x4 shrink their tiles to keep the window the same size.
+     */
+    public GUI(int rows, int cols) {
         setTitle("2048 Game");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setResizable(false);
         
         // Initialize the game logic
-        game = new Game();
+        game = new Game(rows, cols);
+        exponents = new byte[rows * cols];
         
         // Create main panel
         JPanel mainPanel = new JPanel(new BorderLayout());
@@ -107,35 +145,51 @@ public class GUI extends JFrame {
         newGameButton.setFocusPainted(false);
         newGameButton.addActionListener(e -> resetGame());
         
+        JButton hintButton = new JButton("Hint");
+        hintButton.setFont(new Font("Corrier New", Font.BOLD, 14));
+        hintButton.setBackground(BUTTON_COLOR);
+        hintButton.setForeground(Color.WHITE);
+        hintButton.setOpaque(true);
+        hintButton.setBorderPainted(false);
+        hintButton.setFocusPainted(false);
+        hintButton.addActionListener(e -> {
+            showHint();
+            requestFocus();
+        });
+        
+        autoButton = new JButton("Auto");
+        autoButton.setFont(new Font("Corrier New", Font.BOLD, 14));
+        autoButton.setBackground(BUTTON_COLOR);
+        autoButton.setForeground(Color.WHITE);
+        autoButton.setOpaque(true);
+        autoButton.setBorderPainted(false);
+        autoButton.setFocusPainted(false);
+        autoButton.setEnabled(game.isPacked());
+        autoButton.addActionListener(e -> {
+            toggleAutoplay();
+            requestFocus();
+        });
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 6, 0));
+        buttonPanel.setBackground(BACKGROUND_COLOR);
+        buttonPanel.add(autoButton);
+        buttonPanel.add(hintButton);
+        buttonPanel.add(newGameButton);
+        
         bottomPanel.add(statusLabel, BorderLayout.WEST);
-        bottomPanel.add(newGameButton, BorderLayout.EAST);
+        bottomPanel.add(buttonPanel, BorderLayout.EAST);
         
         headerPanel.add(topPanel, BorderLayout.NORTH);
         headerPanel.add(bottomPanel, BorderLayout.SOUTH);
         
-        // Create game board panel
-        gamePanel = new JPanel(new GridLayout(GRID_SIZE, GRID_SIZE, TILE_MARGIN, TILE_MARGIN));
-        gamePanel.setBackground(BOARD_COLOR);
-        gamePanel.setBorder(BorderFactory.createEmptyBorder(TILE_MARGIN, TILE_MARGIN, TILE_MARGIN, TILE_MARGIN));
-        gamePanel.setPreferredSize(new Dimension(
-            GRID_SIZE * TILE_SIZE + (GRID_SIZE + 1) * TILE_MARGIN,
-            GRID_SIZE * TILE_SIZE + (GRID_SIZE + 1) * TILE_MARGIN
-        ));
-        
-        // Initialize tile labels
-        tiles = new JLabel[GRID_SIZE][GRID_SIZE];
-        for (int i = 0; i < GRID_SIZE; i++) {
-            for (int j = 0; j < GRID_SIZE; j++) {
-                tiles[i][j] = new JLabel("", SwingConstants.CENTER);
-                tiles[i][j].setFont(new Font("Corrier New", Font.BOLD, 32));
-                tiles[i][j].setOpaque(true);
-                tiles[i][j].setBorder(BorderFactory.createLineBorder(BOARD_COLOR, 2));
-                gamePanel.add(tiles[i][j]);
-            }
-        }
+        // Create game board panel (paints the tiles itself)
+        int tileSize = Math.min(TILE_SIZE, DEFAULT_SIZE * TILE_SIZE / Math.max(rows, cols));
+        int margin = Math.max(2, TILE_MARGIN * tileSize / TILE_SIZE);
+        boardPanel = new BoardPanel(rows, cols, tileSize, margin, BOARD_COLOR, TILE_COLORS,
+            TILE_TEXT_DARK, TILE_TEXT_LIGHT);
         
         mainPanel.add(headerPanel, BorderLayout.NORTH);
-        mainPanel.add(gamePanel, BorderLayout.CENTER);
+        mainPanel.add(boardPanel, BorderLayout.CENTER);
         
         add(mainPanel);
         
@@ -143,33 +197,65 @@ public class GUI extends JFrame {
         addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_P) {
+                    toggleAutoplay();
+                    return;
+                }
+                if (autoPlayer != null) {
+                    // The player thread owns the game; only speed keys apply
+                    if (e.getKeyCode() == KeyEvent.VK_EQUALS || e.getKeyCode() == KeyEvent.VK_PLUS
+                        || e.getKeyCode() == KeyEvent.VK_ADD) {
+                        changeAutoplaySpeed(1);
+                    } else if (e.getKeyCode() == KeyEvent.VK_MINUS || e.getKeyCode() == KeyEvent.VK_SUBTRACT) {
+                        changeAutoplaySpeed(-1);
+                    }
+                    return;
+                }
+                if (e.getKeyCode() == KeyEvent.VK_H) {
+                    showHint();
+                    return;
+                }
+                if (e.getKeyCode() == KeyEvent.VK_Z || e.getKeyCode() == KeyEvent.VK_Y) {
+                    boolean changed = e.getKeyCode() == KeyEvent.VK_Z ? game.undo() : game.redo();
+                    if (changed) {
+                        cancelHint();
+                        queuedMoves.clear();
+                        updateDisplay();
+                        statusLabel.setText("Use arrow keys to play!");
+                        statusLabel.setForeground(TEXT_COLOR);
+                    }
+                    return;
+                }
                 if (game.isGameOver()) {
                     return;
                 }
                 
-                boolean moved = false;
+                int direction = -1;
                 switch (e.getKeyCode()) {
                     case KeyEvent.VK_UP:
                     case KeyEvent.VK_W:
-                        moved = game.moveUp();
+                        direction = BitBoard.UP;
                         break;
                     case KeyEvent.VK_DOWN:
                     case KeyEvent.VK_S:
-                        moved = game.moveDown();
+                        direction = BitBoard.DOWN;
                         break;
                     case KeyEvent.VK_LEFT:
                     case KeyEvent.VK_A:
-                        moved = game.moveLeft();
+                        direction = BitBoard.LEFT;
                         break;
                     case KeyEvent.VK_RIGHT:
                     case KeyEvent.VK_D:
-                        moved = game.moveRight();
+                        direction = BitBoard.RIGHT;
                         break;
                 }
                 
-                if (moved) {
-                    updateDisplay();
-                    checkGameStatus();
+                if (direction >= 0 && queuedMoves.size() < MAX_QUEUED_MOVES) {
+                    cancelHint();
+                    queuedMoves.add(direction);
+                    if (!boardPanel.isAnimating()) {
+                        playQueuedMove();
+                    }
                 }
             }
         });
@@ -182,63 +268,188 @@ public class GUI extends JFrame {
         updateDisplay();
     }
     
-    private void updateDisplay() {
-        int[][] board = game.getBoard();
-        for (int i = 0; i < GRID_SIZE; i++) {
-            for (int j = 0; j < GRID_SIZE; j++) {
-                int value = board[i][j];
-                if (value == 0) {
-                    tiles[i][j].setText("");
-                    tiles[i][j].setBackground(TILE_COLORS[0]);
-                } else {
-                    tiles[i][j].setText(String.valueOf(value));
-                    tiles[i][j].setBackground(getTileColor(value));
-                    tiles[i][j].setForeground(value <= 4 ? TILE_TEXT_DARK : TILE_TEXT_LIGHT);
-                    
-                    // Adjust font size based on number of digits
-                    if (value < 100) {
-                        tiles[i][j].setFont(new Font("Corrier New", Font.BOLD, 48));
-                    } else if (value < 1000) {
-                        tiles[i][j].setFont(new Font("Corrier New", Font.BOLD, 36));
-                    } else {
-                        tiles[i][j].setFont(new Font("Corrier New", Font.BOLD, 28));
-                    }
-                }
+    /**
+     * Plays the next queued move that changes the board and animates it
+     * The animation's end checks the game status and plays the move after it.
+     */
+    private void playQueuedMove() {
+        while (!queuedMoves.isEmpty()) {
+            if (game.isGameOver()) {
+                queuedMoves.clear();
+                return;
+            }
+            if (game.move(queuedMoves.poll(), lastMove)) {
+                scoreLabel.setText("Score: " + game.getScore());
+                boardPanel.animate(lastMove, () -> {
+                    checkGameStatus();
+                    playQueuedMove();
+                });
+                return;
             }
         }
-        scoreLabel.setText("Score: " + game.getScore());
     }
     
-    private Color getTileColor(int value) {
-        int index = 0;
-        int temp = value;
-        while (temp > 1) {
-            temp /= 2;
-            index++;
+    /**
+     * Starts a hint search for the current position; the status label follows it
+     * Results arrive on the engine's thread and are shown on the EDT, unless the
+     * board has changed (and the search been replaced or cancelled) meanwhile.
+     */
+    private void showHint() {
+        if (autoPlayer != null || game.isGameOver() || boardPanel.isAnimating() || !queuedMoves.isEmpty()) return;
+        statusLabel.setText("Thinking...");
+        statusLabel.setForeground(TEXT_COLOR);
+        hint = hintEngine.start(game, (search, direction, rollouts, done) ->
+            SwingUtilities.invokeLater(() -> {
+                if (search != hint || direction < 0) return;
+                statusLabel.setText("Hint: " + DIRECTION_NAMES[direction]
+                    + (done ? " (" + rollouts + " games)" : "..."));
+            }));
+    }
+    
+    /**
+     * Drops the hint in flight or on display, since the board is about to change
+     */
+    private void cancelHint() {
+        if (hint == null) return;
+        hintEngine.cancel();
+        hint = null;
+        statusLabel.setText("Use arrow keys to play!");
+        statusLabel.setForeground(TEXT_COLOR);
+    }
+    
+    /**
+     * Sets the policy the Auto button plays with (default greedy)
+     */
+    public void setAutoplayPolicy(MovePolicy policy) {
+        autoPolicy = policy;
+    }
+    
+    private void toggleAutoplay() {
+        if (autoPlayer != null) {
+            stopAutoplay();
+        } else {
+            startAutoplay();
+        }
+    }
+    
+    /**
+     * Hands the game to a background player and samples it once per screen refresh
+     */
+    public void startAutoplay() {
+        if (autoPlayer != null || !game.isPacked() || game.isGameOver()) return;
+        cancelHint();
+        queuedMoves.clear();
+        // Ends any move animation, whose callback would read the game once the player owns it
+        updateDisplay();
+        autoPlayer = new AutoPlayer(game, autoPolicy, new SplittableRandom());
+        shownSnapshot = null;
+        shownRate = 0;
+        autoPlayer.start(AUTOPLAY_SPEEDS[autoSpeed]);
+        if (autoFrameTimer == null) {
+            autoFrameTimer = new Timer(1000 / refreshRate(), e -> showAutoplayFrame());
+        }
+        autoFrameTimer.start();
+        autoButton.setText("Stop");
+    }
+    
+    /**
+     * Stops the background player and gives the game back to the keyboard
+     */
+    private void stopAutoplay() {
+        if (autoPlayer == null) return;
+        autoPlayer.stop();
+        autoPlayer = null;
+        autoFrameTimer.stop();
+        autoButton.setText("Auto");
+        updateDisplay();
+        if (game.isGameOver()) {
+            statusLabel.setText("Game Over! No moves left.");
+            statusLabel.setForeground(GAME_OVER_COLOR);
+        } else {
+            statusLabel.setText("Use arrow keys to play!");
+            statusLabel.setForeground(TEXT_COLOR);
+        }
+    }
+    
+    private void changeAutoplaySpeed(int step) {
+        autoSpeed = Math.max(0, Math.min(AUTOPLAY_SPEEDS.length - 1, autoSpeed + step));
+        autoPlayer.setMovesPerSecond(AUTOPLAY_SPEEDS[autoSpeed]);
+    }
+    
+    private int refreshRate() {
+        int rate = getGraphicsConfiguration().getDevice().getDisplayMode().getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? 60 : Math.min(rate, 240);
+    }
+    
+    /**
+     * One frame timer tick: shows the newest board, skipping any played since the last tick
+     * Win and game over go to the status label, so nothing blocks the player.
+     */
+    private void showAutoplayFrame() {
+        AutoPlayer.Snapshot snapshot = autoPlayer.sample();
+        if (snapshot == shownSnapshot) return;
+        if (shownSnapshot != null) {
+            // Two snapshots can share a timer tick; keep the last rate rather than divide by zero
+            long nanos = snapshot.getNanos() - shownSnapshot.getNanos();
+            if (nanos > 0) shownRate = (snapshot.getMoves() - shownSnapshot.getMoves()) * 1e9 / nanos;
         }
-        return index < TILE_COLORS.length ? TILE_COLORS[index] : TILE_COLORS[TILE_COLORS.length - 1];
+        shownSnapshot = snapshot;
+        boardPanel.setBoard(snapshot.getExponents());
+        scoreLabel.setText("Score: " + snapshot.getScore());
+
+        // Autoplay reports in the status label only; no dialog later for what it reached
+        winAnnounced |= snapshot.hasWon();
+        if (snapshot.isOver()) {
+            gameOverAnnounced = true;
+            stopAutoplay();
+            statusLabel.setText("Game Over! " + snapshot.getMoves() + " moves");
+            statusLabel.setForeground(GAME_OVER_COLOR);
+            return;
+        }
+        statusLabel.setText(String.format("%sAutoplay: %,.0f moves/s", snapshot.hasWon() ? "2048! " : "",
+            shownRate));
+        statusLabel.setForeground(snapshot.hasWon() ? WIN_COLOR : TEXT_COLOR);
+    }
+    
+    private void updateDisplay() {
+        game.getExponents(exponents);
+        boardPanel.setBoard(exponents);
+        scoreLabel.setText("Score: " + game.getScore());
     }
     
+    /**
+     * Shows a win or game over in the status label, with a dialog the first time in each game
+     * After the first dialog, moves past 2048 only update the label, so play is not interrupted.
+     */
     private void checkGameStatus() {
-        if (game.hasWon()) {
-            statusLabel.setText("Congratulations! You won!");
-            statusLabel.setForeground(WIN_COLOR);
-            JOptionPane.showMessageDialog(this, 
-                "Congratulations! You reached 2048!\nYour score: " + game.getScore(), 
-                "You Won!", 
-                JOptionPane.INFORMATION_MESSAGE);
-        } else if (game.isGameOver()) {
+        if (game.isGameOver()) {
             statusLabel.setText("Game Over! No moves left.");
             statusLabel.setForeground(GAME_OVER_COLOR);
+            if (gameOverAnnounced) return;
+            gameOverAnnounced = true;
             JOptionPane.showMessageDialog(this, 
                 "Game Over!\nFinal Score: " + game.getScore(), 
                 "Game Over", 
                 JOptionPane.INFORMATION_MESSAGE);
+        } else if (game.hasWon()) {
+            statusLabel.setText("Congratulations! You won!");
+            statusLabel.setForeground(WIN_COLOR);
+            if (winAnnounced) return;
+            winAnnounced = true;
+            JOptionPane.showMessageDialog(this, 
+                "Congratulations! You reached 2048!\nYour score: " + game.getScore(), 
+                "You Won!", 
+                JOptionPane.INFORMATION_MESSAGE);
         }
     }
     
     private void resetGame() {
+        stopAutoplay();
+        cancelHint();
+        queuedMoves.clear();
         game.resetGame();
+        winAnnounced = false;
+        gameOverAnnounced = false;
         updateDisplay();
         statusLabel.setText("Use arrow keys to play!");
         statusLabel.setForeground(TEXT_COLOR);
@@ -1,82 +1,180 @@
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
 /**
  * Game class for 2048
  * Contains all game logic and state management
  * 
- * STUDENT VERSION: Complete the TODO sections to make the game work!
+ * A 4x4 board lives in a BitBoard (one long, 4 bits per cell); any other
+ * size lives in a GridBoard (one byte per cell). This class keeps the score
+ * and win/lose state and exposes the classic int[][] view for the GUI.
  */
 public class Game {
-    private static final int BOARD_SIZE = 4;
+    private static final int DEFAULT_SIZE = BitBoard.SIZE;
     private static final int WIN_VALUE = 2048;
+    private static final int WIN_EXPONENT = Integer.numberOfTrailingZeros(WIN_VALUE);
+    private static final int DEFAULT_HISTORY_LIMIT = 1024;
+    
+    private final int rows;
+    private final int cols;
+    
+    // Exactly one of these holds the board: board for 4x4, cells otherwise
+    private long board;
+    private final byte[] cells;
     
-    private int[][] board;
     private int score;
-    private Random random;
+    private RandomGenerator random;
     private boolean hasWon;
-    private boolean gameOver;
+    
+    // Kept up to date after every move and spawn, so status checks are O(1)
+    private int emptyCount;
+    private int legalMoves;
+    
+    // Undo/redo: a ring of snapshots, each snapshotWords longs:
+    // [board (4x4: the packed long, else 8 exponents per long)..., score, generator state]
+    // Index 0 is the oldest snapshot and historyCursor the current position.
+    private final int snapshotWords;
+    private int historyLimit = DEFAULT_HISTORY_LIMIT;
+    private long[] history = new long[0];
+    private int historyStart;
+    private int historyCount;
+    private int historyCursor;
     
     /**
-     * Constructor - initializes a new game
+     * Constructor - initializes a new 4x4 game
      */
     public Game() {
-        random = new Random();
+        this(new SpawnRandom());
+    }
+    
+    /**
+     * Constructor - initializes a new 4x4 game that spawns tiles from the given generator
+     * Seed it to make games reproducible; give each thread its own generator
+     * (e.g. SplittableRandom.split()) to keep many games contention-free.
+     * Undo/redo also rewinds the generator when it is a SpawnRandom.
+     */
+    public Game(RandomGenerator random) {
+        this(DEFAULT_SIZE, DEFAULT_SIZE, random);
+    }
+    
+    /**
+     * Constructor - initializes a new 4x4 game whose spawns follow a seed
+     * Equal seeds and equal moves always give equal games (see Replay).
+     */
+    public Game(long seed) {
+        this(new SpawnRandom(seed));
+    }
+    
+    /**
+     * Constructor - initializes a new rows x cols game
+     */
+    public Game(int rows, int cols) {
+        this(rows, cols, new SpawnRandom());
+    }
+    
+    /**
+     * Constructor - initializes a new rows x cols game with the given generator
+     * Sizes from 2x2 up to 16x16 are supported.
+     */
+    public Game(int rows, int cols, RandomGenerator random) {
+        if (rows < 2 || cols < 2 || rows > 16 || cols > 16) {
+            throw new IllegalArgumentException("Board size must be 2..16 each way: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = isPacked(rows, cols) ? null : new byte[rows * cols];
+        this.snapshotWords = (cells == null ? 1 : (cells.length + 7) / 8) + 2;
+        this.random = random;
         resetGame();
     }
     
+    private static boolean isPacked(int rows, int cols) {
+        return rows == BitBoard.SIZE && cols == BitBoard.SIZE;
+    }
+    
     /**
      * Resets the game to initial state
      */
     public void resetGame() {
-        board = new int[BOARD_SIZE][BOARD_SIZE];
+        board = 0;
+        if (cells != null) Arrays.fill(cells, (byte) 0);
         score = 0;
         hasWon = false;
-        gameOver = false;
         
         // Add two initial tiles
         addRandomTile();
         addRandomTile();
+        clearHistory();
     }
     
     /**
-     
-     * Requirements:
+     * Replaces the board and score, e.g. to load a saved or prepared position
+     * The win and game-over flags are recomputed from the new board.
+     * Only for 4x4 games.
+     */
+    public void setState(long packedBoard, int score) {
+        requirePacked();
+        this.board = packedBoard;
+        this.score = score;
+        hasWon = false;
+        updateStatus();
+        clearHistory();
+    }
+
+    /**
+     * Gets a seed that carries on this game's spawns in a new SpawnRandom:
+     * the SpawnRandom state itself, or a value drawn from any other generator
+     */
+    long spawnSeed() {
+        return random instanceof SpawnRandom ? ((SpawnRandom) random).getState() : random.nextLong();
+    }
+
+    /**
+     * Adds a tile to a random empty cell
      * - 90% chance of adding a 2
      * - 10% chance of adding a 4
-     * - Should only add to empty cells
-     * - Use the getEmptyCells() method to find empty positions
-     * 
-     * Hint: Use random.nextInt(10) < 9 for 90% probability
+     * Picks straight from the empty cells in place, so nothing is allocated.
      */
-    private void addRandomTile() {
-       
-        ArrayList<int[]> emptyCells = getEmptyCells(); // get empties
-        if (emptyCells.isEmpty()) return; // checks if board is already full
-        
-        int[] spot = emptyCells.get((int)(Math.random()* emptyCells.size())); // get empty
-       
-        if(random.nextInt(10) < 9) board[spot[0]][spot[1]] = 2;
-        else board[spot[0]][spot[1]] = 4;
-        //90% for 2, 10% for 4
-
+    void addRandomTile() {
+        if (cells == null) {
+            long before = board;
+            board = BitBoard.spawn(board, random);
+            if (GameMetrics.ENABLED && board != before) {
+                int shift = Long.numberOfTrailingZeros(board ^ before) & ~3;
+                GameMetrics.recordSpawn((int) (board >>> shift) & 0xF);
+            }
+        } else {
+            // emptyCount is stale here: the move that came first may have merged tiles
+            int cell = GridBoard.spawn(cells, GridBoard.countEmpty(cells), random);
+            if (GameMetrics.ENABLED && cell >= 0) GameMetrics.recordSpawn(cells[cell]);
+        }
+        updateStatus();
     }
     
     /**
-
-     * Requirements:
-     * - Return an ArrayList of int arrays [row, col] for each empty cell
-     * - A cell is empty if its value is 0
-     * 
-     * Hint: Loop through the board and check each cell
+     * Refreshes the empty-cell count and legal-move mask after the board changed
+     */
+    private void updateStatus() {
+        if (cells == null) {
+            emptyCount = BitBoard.countEmpty(board);
+            legalMoves = BitBoard.legalMoves(board);
+        } else {
+            emptyCount = GridBoard.countEmpty(cells);
+            legalMoves = GridBoard.legalMoves(cells, rows, cols);
+        }
+    }
+    
+    /**
+     * Returns an ArrayList of int arrays [row, col] for each empty cell
      */
-    private ArrayList<int[]> getEmptyCells() {
+    ArrayList<int[]> getEmptyCells() {
   
         ArrayList<int[]> emptyCells = new ArrayList<>();
        
-        for(int row = 0; row < board.length; row++){
-            for(int col = 0; col < board[0].length; col++){
-                if(board[row][col] == 0) emptyCells.add(new int[]{row,col});
+        for(int row = 0; row < rows; row++){
+            for(int col = 0; col < cols; col++){
+                if(getExponent(row, col) == 0) emptyCells.add(new int[]{row,col});
             }
         }
 
@@ -84,255 +182,302 @@ public class Game {
     }
     
     /**
-     * Requirements:
-     * - Slide all tiles to the left (remove gaps)
-     * - Merge adjacent tiles with same value
-     * - Each tile can only merge once per move
-     * - Update score when tiles merge (add merged value to score)
-     * - Add a random tile after a successful move
-     * - Return true if any tiles moved, false otherwise
-     * 
-     * Algorithm hints:
-     * 1. For each row:
-     *    a. Compress tiles to the left (remove zeros)
-     *    b. Merge adjacent equal tiles
-     *    c. Check if the row changed
-     * 2. If any row changed, add a random tile
+     * Slides the board in one direction, merging equal tiles once each
+     * Adds the merged values to the score and spawns a tile if anything moved.
+     * Returns true if any tiles moved, false otherwise
+     *
+     * @param direction one of BitBoard.LEFT, RIGHT, UP or DOWN
      */
-    public boolean moveLeft() {
-   
-        boolean moved = false;
-
-        for(int row = 0; row < board.length; row++){
-            int[] temp = new int[BOARD_SIZE];
-
-            // SMART COPY
-            int copyCount = 0;
-            for(int col = 0; col < board[0].length; col++){
-                if(board[row][col] != 0) temp[copyCount++] = board[row][col];
-            }
-
-            //HARD PART - MERGE + SCOOTCH
-            for(int col = 0; col < board[0].length-1; col++){
-                if(temp[col] == temp[col+1]){
-                    temp[col] = temp[col]*2;
-
-                    score += temp[col];
-                    for(int scootch = col+1; scootch < board[0].length-1; scootch++){
-                        temp[scootch] = temp[scootch+1];
-                    }
-                    //add zero at end
-                    temp[board[0].length-1] = 0;
-                }
-            }
-
-            //CHECK DIFF
-            for(int col = 0; col < board[0].length; col++){
-                if(temp[col] != board[row][col]){
-                    moved = true;
-                    board[row] = temp;
-                }
+    public boolean move(int direction) {
+        return move(direction, null);
+    }
+    
+    /**
+     * Same as move(direction), and also describes the move in result
+     * (where each tile went, what merged, where the new tile spawned)
+     *
+     * @param result filled in when the move is legal; may be null
+     */
+    public boolean move(int direction, MoveResult result) {
+        if ((legalMoves & (1 << direction)) == 0) {
+            if (GameMetrics.ENABLED) GameMetrics.recordNoOpMove();
+            return false;
+        }
+        long start = GameMetrics.ENABLED ? System.nanoTime() : 0;
+        int emptyBefore = emptyCount;
+        int scoreBefore = score;
+        
+        if (result != null) {
+            result.reset(rows, cols);
+            result.direction = direction;
+            getExponents(result.before);
+        }
+        
+        if (cells == null) {
+            if (result != null) {
+                BitBoard.describeMove(board, direction, result.destinations, result.merged);
             }
+            score += BitBoard.moveScore(board, direction);
+            board = BitBoard.move(board, direction);
+        } else {
+            short[] destinations = result == null ? null : result.destinations;
+            boolean[] merged = result == null ? null : result.merged;
+            score += GridBoard.move(cells, rows, cols, direction, destinations, merged);
+        }
+        
+        if (result == null) {
+            addRandomTile();
+            recordHistory();
+        } else {
+            getExponents(result.after); // slid, not spawned yet
+            addRandomTile();
+            recordHistory();
+            describeSpawn(result, score - scoreBefore);
         }
         
-        if(moved) addRandomTile();
-        return moved;
+        if (GameMetrics.ENABLED) {
+            // Each merge frees one cell; the spawn fills one
+            GameMetrics.recordMove(System.nanoTime() - start, emptyCount + 1 - emptyBefore, legalMoves == 0);
+        }
+        return true;
     }
     
     /**
-
-     * Requirements:
-     * - Similar to moveLeft but in opposite direction
-     * - Slide tiles to the right
-     * - Merge from right to left
-     * 
-     * Hint: Process from right to left instead of left to right
+     * Finishes a MoveResult whose after holds the slid board: adds the spawn
+     * (Kept out of move() so the plain move path stays small enough to inline)
      */
-    public boolean moveRight() {
-        boolean moved = false;
-
-        for(int row = 0; row < board.length; row++){
-            int[] temp = new int[BOARD_SIZE];
-
-            // SMART COPY
-            int copyCount = BOARD_SIZE - 1;
-            for(int col = board[0].length-1; col>=0; col--){
-                if(board[row][col] != 0) temp[copyCount--] = board[row][col];
-            }
-
-            //HARD PART - MERGE + SCOOTCH
-            for(int col = board[0].length-1; col>0; col--){
-                if(temp[col] == temp[col-1]){
-                    temp[col] = temp[col]*2;
-
-                    score += temp[col];
-                    for(int scootch = col-1; scootch > board[0].length-1; scootch--){
-                        temp[scootch] = temp[scootch-1];
-                    }
-                    //add zero at end
-                    temp[0]= 0;
-                }
-            }
-
-            //CHECK DIFF
-            for(int col = 0; col < board[0].length; col++){
-                if(temp[col] != board[row][col]){
-                    moved = true;
-                    board[row] = temp;
-                }
+    private void describeSpawn(MoveResult result, int scoreGained) {
+        for (int cell = 0; cell < result.after.length; cell++) {
+            int exponent = getExponent(cell / cols, cell % cols);
+            if (result.after[cell] != exponent) {
+                result.after[cell] = (byte) exponent;
+                result.spawnCell = cell;
             }
         }
-        
-        if(moved) addRandomTile();
-        return moved;
+        result.scoreGained = scoreGained;
     }
     
     /**
-   
-     * Requirements:
-     * - Similar logic to moveLeft but operates on columns
-     * - Slide tiles up
-     * - Merge from top to bottom
-     * 
-     * Hint: Work with columns instead of rows
+     * Takes back the last move (board, score and spawn generator)
+     * Returns false when there is nothing left to undo
      */
-    public boolean moveUp() {
-        boolean moved = false;
-        
-  
-        for(int col = 0; col < board[0].length; col++){
-            
-            int[] temp = new int[BOARD_SIZE];
-
-            int copyCount = 0;
-            for(int row = 0; row <board.length; row++){
-                if(board[row][col] != 0) temp[copyCount++] = board[row][col];
-            }
-
-            // HARD PART - MERGE + SCOOTCH
-            for(int row = 0; row < board.length-1 ; row++){
-
-                if(temp[row] == temp[row + 1]){
-                    temp[row] = temp[row]*2;
-                    //add points
-                    score += temp[row];
-                    //add 0
-                    for(int scootch = row + 1; scootch < board.length-1; scootch++){
-                        temp[scootch] = temp[scootch + 1];
-                    }
-                    temp[board.length-1] = 0;
-                }
-            }
-
-
-            // CHECK DIFF
-            for(int row = board[0].length - 1; row >= 0; row--){
-                if(temp[row] != board[row][col]){
-                    moved = true;
-                }
-                board[row][col] = temp[row]; //repace row w new val
-            }
-        }  
-        if(moved) addRandomTile();
-        return moved;
+    public boolean undo() {
+        if (historyCursor == 0) return false;
+        historyCursor--;
+        loadSnapshot(historySlot(historyCursor));
+        return true;
     }
     
     /**
-     * Requirements:
-     * - Similar to moveUp but in opposite direction
-     * - Slide tiles down
-     * - Merge from bottom to top
+     * Replays the last undone move, including the same spawned tile
+     * Returns false when there is nothing to redo (any new move clears redo)
      */
-     public boolean moveDown() {
-        boolean moved = false;
+    public boolean redo() {
+        if (historyCursor + 1 >= historyCount) return false;
+        historyCursor++;
+        loadSnapshot(historySlot(historyCursor));
+        return true;
+    }
+    
+    /**
+     * Gets the number of moves that can currently be undone
+     */
+    public int historySize() {
+        return historyCursor;
+    }
+    
+    /**
+     * Sets how many moves can be undone (0 turns history off)
+     * Use Integer.MAX_VALUE for unbounded history. Clears the current history.
+     */
+    public void setHistoryLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("History limit must not be negative: " + limit);
+        }
+        historyLimit = limit;
+        history = new long[0];
+        clearHistory();
+    }
+    
+    private void clearHistory() {
+        historyStart = 0;
+        historyCount = 0;
+        historyCursor = 0;
+        recordHistory();
+    }
+    
+    /**
+     * Stores the current state as the newest snapshot, dropping any redo states
+     * Only writes into the ring; it is reallocated just when it has to grow.
+     */
+    private void recordHistory() {
+        if (historyLimit == 0) return;
+        historyCount = historyCount == 0 ? 0 : historyCursor + 1;
         
-      
-        for(int col = board[0].length - 1; col >= 0; col--){
-  
-            int[] temp = new int[BOARD_SIZE];
-
-            int copyCount = BOARD_SIZE - 1;
-            for(int row = BOARD_SIZE - 1; row >= 0; row--){
-                if(board[row][col] != 0) temp[copyCount--] = board[row][col];
+        int capacity = history.length / snapshotWords;
+        long wanted = (long) historyLimit + 1; // the current state plus limit undos
+        if (historyCount == capacity) {
+            if (capacity < wanted) {
+                growHistory((int) Math.min(wanted, Math.max(64, 2L * capacity)));
+            } else {
+                historyStart = (historyStart + 1) % capacity; // forget the oldest
+                historyCount--;
             }
-            // HARD PART - MERGE + SCOOTCH
-            for(int row = BOARD_SIZE - 1; row > 0; row--){
-
-                if(temp[row] == temp[row - 1]){
-                    temp[row] = temp[row]*2;
-                    //add points
-                    score += temp[row];
-                    //add 0
-                    for(int scootch = row - 1; scootch > 0 ; scootch--){
-                        temp[scootch] = temp[scootch - 1];
-                    }
-                    temp[0] = 0; 
+        }
+        saveSnapshot(historySlot(historyCount));
+        historyCursor = historyCount;
+        historyCount++;
+    }
+    
+    private void growHistory(int capacity) {
+        long[] grown = new long[capacity * snapshotWords];
+        for (int i = 0; i < historyCount; i++) {
+            System.arraycopy(history, historySlot(i), grown, i * snapshotWords, snapshotWords);
+        }
+        history = grown;
+        historyStart = 0;
+    }
+    
+    /** Offset in history of the i-th snapshot (0 = oldest) */
+    private int historySlot(int i) {
+        int capacity = history.length / snapshotWords;
+        return (historyStart + i) % capacity * snapshotWords;
+    }
+    
+    private void saveSnapshot(int offset) {
+        int words = snapshotWords - 2;
+        if (cells == null) {
+            history[offset] = board;
+        } else {
+            for (int word = 0; word < words; word++) {
+                long packed = 0;
+                for (int i = 0, cell = word * 8; i < 8 && cell < cells.length; i++, cell++) {
+                    packed |= (cells[cell] & 0xFFL) << (8 * i);
                 }
+                history[offset + word] = packed;
             }
-
-
-            // CHECK DIFF
-            for(int row = board[0].length - 1; row >= 0; row--){
-                if(temp[row] != board[row][col]){
-                    moved = true;
+        }
+        history[offset + words] = score;
+        history[offset + words + 1] = random instanceof SpawnRandom ? ((SpawnRandom) random).getState() : 0;
+    }
+    
+    private void loadSnapshot(int offset) {
+        int words = snapshotWords - 2;
+        if (cells == null) {
+            board = history[offset];
+        } else {
+            for (int word = 0; word < words; word++) {
+                long packed = history[offset + word];
+                for (int i = 0, cell = word * 8; i < 8 && cell < cells.length; i++, cell++) {
+                    cells[cell] = (byte) (packed >>> (8 * i));
                 }
-                board[row][col] = temp[row]; 
             }
-        }  
-        if(moved) {
-            addRandomTile();
-        } 
-        return moved;
+        }
+        score = (int) history[offset + words];
+        if (random instanceof SpawnRandom) {
+            ((SpawnRandom) random).setState(history[offset + words + 1]);
+        }
+        hasWon = false;
+        updateStatus();
     }
     
     /**
-
-     * Requirements:
-     * - Return true if any tile has value >= WIN_VALUE (2048)
-     * - Once won, should continue returning true (use hasWon field)
-     * 
-     * Hint: Check all tiles and update the hasWon field
+     * Slides all tiles to the left and merges adjacent equal tiles
+     * Returns true if any tiles moved, false otherwise
+     */
+    public boolean moveLeft() {
+        return move(BitBoard.LEFT);
+    }
+    
+    /**
+     * Slides all tiles to the right, merging from right to left
+     */
+    public boolean moveRight() {
+        return move(BitBoard.RIGHT);
+    }
+    
+    /**
+     * Slides all tiles up, merging from top to bottom
+     */
+    public boolean moveUp() {
+        return move(BitBoard.UP);
+    }
+    
+    /**
+     * Slides all tiles down, merging from bottom to top
+     */
+    public boolean moveDown() {
+        return move(BitBoard.DOWN);
+    }
+    
+    /**
+     * Returns true if any tile has reached WIN_VALUE (2048)
+     * Once won, keeps returning true
      */
     public boolean hasWon() {
-        
-
-        for(int row = 0; row < board.length; row++) {
-            for(int col = 0; col < board[0].length; col++) {
-                if(board[row][col] >= WIN_VALUE) {
-                    hasWon = true;
-                    return true;
-                }
-            }
+        if (!hasWon) {
+            int max = cells == null ? BitBoard.maxExponent(board) : GridBoard.maxExponent(cells);
+            hasWon = max >= WIN_EXPONENT;
         }
-        return false;
+        return hasWon;
     }
     
     /**
-     * 
-     * Requirements:
-     * - Game is over when:
-     *   1. No empty cells remain AND
-     *   2. No adjacent tiles (horizontal or vertical) can be merged
-     * - Update the gameOver field when game ends
-     * 
-     * Hint: First check for empty cells, then check all adjacent pairs
+     * Returns true when no empty cells remain and no adjacent tiles
+     * (horizontal or vertical) can be merged
      */
-   public boolean isGameOver() {
-        if(!getEmptyCells().isEmpty()){
-            return false;
-        } 
-        else{
-           for(int row = 0; row < board.length - 1; row++){  
-                for(int col = 0; col < board[0].length - 1; col++){
-                    if(board[row][col] == board[row+1][col] 
-                        || board[row][col] == board[row][col+1] ){
-                      return false;   
-                    }    
-                }
-            }  
+    public boolean isGameOver() {
+        return legalMoves == 0;
+    }
+    
+    /**
+     * Returns a bitmask of the moves that would change the board:
+     * bit BitBoard.LEFT, RIGHT, UP or DOWN is set when that move is legal
+     */
+    public int legalMoves() {
+        return legalMoves;
+    }
+    
+    /**
+     * Gets the number of empty cells
+     */
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+    
+    /**
+     * Gets the exponent at (row, col): 0 when empty, 1 for a 2, 2 for a 4, ...
+     */
+    public int getExponent(int row, int col) {
+        return cells == null ? BitBoard.get(board, row, col) : cells[row * cols + col];
+    }
+    
+    /**
+     * Copies every exponent, row by row, into the given array (no allocation)
+     *
+     * @param into an array of at least rows * cols entries
+     */
+    public void getExponents(byte[] into) {
+        if (cells != null) {
+            System.arraycopy(cells, 0, into, 0, cells.length);
+            return;
+        }
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            into[cell] = (byte) ((board >>> (4 * cell)) & 0xF);
         }
+    }
     
-        return true;
+    /**
+     * Returns true for 4x4 games, whose board is available as a packed long
+     */
+    public boolean isPacked() {
+        return cells == null;
+    }
+    
+    private void requirePacked() {
+        if (cells != null) {
+            throw new IllegalStateException("Packed boards are 4x4 only, this game is " + rows + "x" + cols);
+        }
     }
     
     // ===================== PROVIDED METHODS - DO NOT MODIFY =====================
@@ -341,15 +486,25 @@ public class Game {
      * Gets a copy of the current board state
      */
     public int[][] getBoard() {
-        int[][] copy = new int[BOARD_SIZE][BOARD_SIZE];
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                copy[i][j] = board[i][j];
+        int[][] copy = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int exponent = getExponent(i, j);
+                copy[i][j] = exponent == 0 ? 0 : 1 << exponent;
             }
         }
         return copy;
     }
     
+    /**
+     * Gets the board packed as a BitBoard long (no copy needed)
+     * Only for 4x4 games, see isPacked().
+     */
+    public long getPackedBoard() {
+        requirePacked();
+        return board;
+    }
+    
     /**
      * Gets the current score
      */
@@ -358,21 +513,36 @@ public class Game {
     }
     
     /**
-     * Gets the board size
+     * Gets the board size (the number of rows; see getCols() for non-square boards)
      */
     public int getBoardSize() {
-        return BOARD_SIZE;
+        return rows;
+    }
+    
+    /**
+     * Gets the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+    
+    /**
+     * Gets the number of columns
+     */
+    public int getCols() {
+        return cols;
     }
     
     /**
      * Helper method for debugging - prints the board to console
      */
     public void printBoard() {
+        int[][] tiles = getBoard();
         System.out.println("Score: " + score);
         System.out.println("-------------");
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                System.out.printf("%4d ", board[i][j]);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                System.out.printf("%4d ", tiles[i][j]);
             }
             System.out.println();
         }
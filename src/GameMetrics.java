@@ -0,0 +1,162 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide engine metrics: move, merge and spawn counters plus a move latency histogram
+ * Off unless the JVM is started with -Dgame.metrics=true. ENABLED is a
+ * constant, so when it is false the JIT drops every metrics call in Game
+ * and the engine runs exactly as if they were not there.
+ *
+ * When enabled the metrics are registered as the MBean
+ * game2048:type=GameMetrics, and -Dgame.metrics.dumpSeconds=N also prints
+ * them to stderr every N seconds. Counters are LongAdders, so games on
+ * many threads update them without contending.
+ */
+public final class GameMetrics implements GameMetricsMBean {
+    public static final boolean ENABLED = Boolean.getBoolean("game.metrics");
+    public static final String OBJECT_NAME = "game2048:type=GameMetrics";
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder noOpMoves = new LongAdder();
+    private final LongAdder merges = new LongAdder();
+    private final LongAdder spawnedTwos = new LongAdder();
+    private final LongAdder spawnedFours = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LatencyHistogram moveNanos = new LatencyHistogram();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                System.err.println("Could not register " + OBJECT_NAME + ": " + e);
+            }
+            long dumpSeconds = Long.getLong("game.metrics.dumpSeconds", 0);
+            if (dumpSeconds > 0) startDump(System.err, dumpSeconds);
+        }
+    }
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Gets the process-wide metrics
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Prints a summary line to out every periodSeconds, on a daemon thread
+     */
+    public static void startDump(PrintStream out, long periodSeconds) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "game-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(() -> out.println(INSTANCE), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    // ===================== Recording (called by Game when ENABLED) =====================
+
+    static void recordMove(long nanos, int merged, boolean finished) {
+        INSTANCE.moves.increment();
+        INSTANCE.merges.add(merged);
+        INSTANCE.moveNanos.record(nanos);
+        if (finished) INSTANCE.gamesFinished.increment();
+    }
+
+    static void recordNoOpMove() {
+        INSTANCE.noOpMoves.increment();
+    }
+
+    static void recordSpawn(int exponent) {
+        (exponent == 1 ? INSTANCE.spawnedTwos : INSTANCE.spawnedFours).increment();
+    }
+
+    // ===================== MBean =====================
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public long getNoOpMoves() {
+        return noOpMoves.sum();
+    }
+
+    @Override
+    public long getMerges() {
+        return merges.sum();
+    }
+
+    @Override
+    public long getSpawnedTwos() {
+        return spawnedTwos.sum();
+    }
+
+    @Override
+    public long getSpawnedFours() {
+        return spawnedFours.sum();
+    }
+
+    @Override
+    public long getGamesFinished() {
+        return gamesFinished.sum();
+    }
+
+    @Override
+    public double getMoveLatencyMeanNanos() {
+        return moveNanos.getMean();
+    }
+
+    @Override
+    public long getMoveLatencyP50Nanos() {
+        return moveNanos.getPercentile(50);
+    }
+
+    @Override
+    public long getMoveLatencyP99Nanos() {
+        return moveNanos.getPercentile(99);
+    }
+
+    @Override
+    public long getMoveLatencyP999Nanos() {
+        return moveNanos.getPercentile(99.9);
+    }
+
+    @Override
+    public long getMoveLatencyMaxNanos() {
+        return moveNanos.getMax();
+    }
+
+    @Override
+    public void reset() {
+        moves.reset();
+        noOpMoves.reset();
+        merges.reset();
+        spawnedTwos.reset();
+        spawnedFours.reset();
+        gamesFinished.reset();
+        moveNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("moves=%d noop=%d merges=%d spawns(2/4)=%d/%d finished=%d"
+                + " move ns: mean=%.0f p50=%d p99=%d p99.9=%d max=%d",
+            getMoves(), getNoOpMoves(), getMerges(), getSpawnedTwos(), getSpawnedFours(),
+            getGamesFinished(), getMoveLatencyMeanNanos(), getMoveLatencyP50Nanos(),
+            getMoveLatencyP99Nanos(), getMoveLatencyP999Nanos(), getMoveLatencyMaxNanos());
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * JMX view of GameMetrics (registered as game2048:type=GameMetrics)
+ */
+public interface GameMetricsMBean {
+    long getMoves();
+
+    long getNoOpMoves();
+
+    long getMerges();
+
+    long getSpawnedTwos();
+
+    long getSpawnedFours();
+
+    long getGamesFinished();
+
+    double getMoveLatencyMeanNanos();
+
+    long getMoveLatencyP50Nanos();
+
+    long getMoveLatencyP99Nanos();
+
+    long getMoveLatencyP999Nanos();
+
+    long getMoveLatencyMaxNanos();
+
+    /**
+     * Zeroes every counter and the latency histogram
+     */
+    void reset();
+}
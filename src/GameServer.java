@@ -0,0 +1,408 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-session 2048 server over a line-based TCP protocol
+ * One thread per connection, running plain blocking I/O. On JDK 21+ those
+ * are virtual threads, so tens of thousands of idle connections cost almost
+ * nothing; older JDKs fall back to a cached pool of platform threads.
+ *
+ * Every session is one Game. A connection attaches to a session once (NEW or
+ * ATTACH) and keeps a direct reference to it, so moves never touch the shared
+ * session map; the only lock on the move path is the session's own monitor,
+ * which is uncontended unless two connections drive the same game.
+ *
+ * Protocol (one command per line, one reply line each):
+ *   NEW [rows cols] -> OK id
+ *   ATTACH id       -> OK id
+ *   MOVE L|R|U|D    -> OK moved(0/1) score over(0/1)
+ *   BOARD           -> OK rows cols tile tile ... (row by row, 0 = empty)
+ *   SCORE           -> OK score
+ *   UNDO            -> OK undone(0/1) score
+ *   CLOSE           -> OK (ends the session)
+ *   NAME player     -> OK (name used for this connection's scores)
+ *   TOP [n]         -> OK count player score player score ... (best first)
+ *   BEST player     -> OK score maxTile moves
+ *   QUIT            -> closes the connection
+ * Errors reply "ERR message".
+ *
+ * With a Leaderboard, every game that ends is submitted once, under the
+ * name of the connection that made its last move; after that UNDO fails.
+ * If the leaderboard is closed or has failed, the game-ending MOVE replies
+ * "ERR leaderboard unavailable" and the next MOVE on that board retries.
+ *
+ * Sessions outlive their connections so they can be attached again, which
+ * makes their memory the server's to bound: each game keeps only a short
+ * undo history, a session unused for the idle timeout is dropped, and NEW
+ * fails once the session limit is reached. The defaults are 100,000
+ * sessions and 30 minutes; main() reads -Dgame.server.maxSessions and
+ * -Dgame.server.idleMinutes.
+ *
+ * Usage: java [-Dgame.server.maxSessions=N] [-Dgame.server.idleMinutes=M] GameServer [port] [leaderboard file]
+ */
+public class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 2048;
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    // Undo depth per session (Game's default would be 1024 boards)
+    private static final int HISTORY_LIMIT = 16;
+    // Idle sessions are looked for at most this often, unless the limit is hit
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = newConnectionExecutor();
+    private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final Leaderboard leaderboard; // null when scores are not kept
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+
+    /**
+     * Binds to the given port on the loopback interface (0 picks a free port)
+     */
+    public GameServer(int port) throws IOException {
+        this(port, null);
+    }
+
+    /**
+     * Binds like GameServer(port) and submits finished games to the leaderboard
+     */
+    public GameServer(int port, Leaderboard leaderboard) throws IOException {
+        this(port, leaderboard, DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param maxSessions       most live sessions at once; NEW fails beyond it
+     * @param idleTimeoutMillis a session not used for this long is dropped
+     */
+    public GameServer(int port, Leaderboard leaderboard, int maxSessions, long idleTimeoutMillis)
+            throws IOException {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be at least 1: " + maxSessions);
+        }
+        if (idleTimeoutMillis < 1) {
+            throw new IllegalArgumentException("idleTimeoutMillis must be positive: " + idleTimeoutMillis);
+        }
+        this.leaderboard = leaderboard;
+        this.maxSessions = maxSessions;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+    }
+
+    /**
+     * Uses a virtual thread per task when the JDK has them, else a cached pool
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of live sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Accepts connections until the server is closed (blocks the calling thread)
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) return;
+                throw e;
+            }
+            socket.setTcpNoDelay(true);
+            connections.execute(() -> handle(socket));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                 new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(
+                 new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            Connection connection = new Connection();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String reply = connection.execute(line.trim());
+                if (reply == null) break; // QUIT
+                out.write(reply);
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Client went away; its session stays available for ATTACH until it idles out
+        }
+    }
+
+    private void removeSession(long id, Session session) {
+        if (sessions.remove(id, session)) sessionCount.decrementAndGet();
+    }
+
+    /**
+     * Drops sessions unused for the idle timeout; runs at most once per sweep interval unless forced
+     */
+    private void expireIdleSessions(boolean force) {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+        if (!force && now - last < SWEEP_INTERVAL_NANOS) return;
+        if (!lastSweep.compareAndSet(last, now)) return; // another thread is sweeping
+        sessions.forEach((id, session) -> {
+            if (now - session.lastUsed > idleTimeoutNanos) removeSession(id, session);
+        });
+    }
+
+    /**
+     * One game plus what the leaderboard needs about it (guarded by the game's monitor)
+     */
+    private static final class Session {
+        final Game game;
+        final long seed;
+        int moves;
+        boolean recorded;
+        volatile long lastUsed = System.nanoTime(); // written without the monitor
+
+        Session(Game game, long seed) {
+            this.game = game;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Per-connection state: the attached session, touched by this thread only
+     */
+    private final class Connection {
+        private long sessionId;
+        private Session session;
+        private Game game;
+        private String player = "anonymous";
+
+        String execute(String line) {
+            String[] parts = line.split("\\s+");
+            String command = parts[0].toUpperCase();
+            try {
+                switch (command) {
+                    case "NEW":
+                        return newSession(parts);
+                    case "ATTACH":
+                        return attach(parts);
+                    case "NAME":
+                        return name(parts);
+                    case "TOP":
+                        return top(parts);
+                    case "BEST":
+                        return best(parts);
+                    case "QUIT":
+                        return null;
+                    default:
+                        break;
+                }
+                if (game == null) return "ERR no session, use NEW or ATTACH";
+                session.lastUsed = System.nanoTime();
+
+                synchronized (game) {
+                    switch (command) {
+                        case "MOVE":
+                            return move(parts);
+                        case "BOARD":
+                            return board();
+                        case "SCORE":
+                            return "OK " + game.getScore();
+                        case "UNDO":
+                            return undo();
+                        case "CLOSE":
+                            removeSession(sessionId, session);
+                            session = null;
+                            game = null;
+                            return "OK";
+                        default:
+                            return "ERR unknown command " + parts[0];
+                    }
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                return "ERR missing argument for " + parts[0];
+            } catch (IllegalArgumentException e) {
+                return "ERR " + e.getMessage();
+            }
+        }
+
+        private String newSession(String[] parts) {
+            int rows = parts.length > 1 ? Integer.parseInt(parts[1]) : BitBoard.SIZE;
+            int cols = parts.length > 2 ? Integer.parseInt(parts[2]) : rows;
+            long seed = ThreadLocalRandom.current().nextLong();
+            Game created = new Game(rows, cols, new SpawnRandom(seed));
+            created.setHistoryLimit(HISTORY_LIMIT);
+
+            expireIdleSessions(sessionCount.get() >= maxSessions);
+            if (sessionCount.incrementAndGet() > maxSessions) {
+                sessionCount.decrementAndGet();
+                return "ERR too many sessions";
+            }
+            session = new Session(created, seed);
+            game = created;
+            sessionId = nextId.getAndIncrement();
+            sessions.put(sessionId, session);
+            return "OK " + sessionId;
+        }
+
+        private String attach(String[] parts) {
+            long id = Long.parseLong(parts[1]);
+            Session found = sessions.get(id);
+            if (found == null) return "ERR no session " + id;
+            found.lastUsed = System.nanoTime();
+            session = found;
+            game = found.game;
+            sessionId = id;
+            return "OK " + id;
+        }
+
+        private String move(String[] parts) {
+            int direction = parseDirection(parts[1]);
+            boolean moved = game.move(direction);
+            boolean over = game.isGameOver();
+            if (moved) session.moves++;
+            if (over && !submitScore()) return "ERR leaderboard unavailable";
+            return "OK " + (moved ? 1 : 0) + " " + game.getScore() + " " + (over ? 1 : 0);
+        }
+
+        private String undo() {
+            // The ranked game must stay the game that was played
+            if (session.recorded) return "ERR game already on the leaderboard";
+            boolean undone = game.undo();
+            if (undone) session.moves--;
+            return "OK " + (undone ? 1 : 0) + " " + game.getScore();
+        }
+
+        /**
+         * Submits the finished game once; returns false if the leaderboard refused it (try again later)
+         */
+        private boolean submitScore() {
+            if (leaderboard == null || session.recorded) return true;
+            int maxExponent = 0;
+            for (int row = 0; row < game.getRows(); row++) {
+                for (int col = 0; col < game.getCols(); col++) {
+                    maxExponent = Math.max(maxExponent, game.getExponent(row, col));
+                }
+            }
+            // Written in the background; the reply does not wait for the disk
+            try {
+                leaderboard.submit(player, game.getScore(), 1 << maxExponent, session.moves, session.seed);
+            } catch (IllegalStateException e) {
+                return false; // closed or failed; the next MOVE on this board retries
+            }
+            session.recorded = true;
+            return true;
+        }
+
+        private String name(String[] parts) {
+            if (parts[1].length() > 64) return "ERR name longer than 64 characters";
+            player = parts[1];
+            return "OK";
+        }
+
+        private String top(String[] parts) {
+            if (leaderboard == null) return "ERR no leaderboard";
+            int count = parts.length > 1 ? Integer.parseInt(parts[1]) : 10;
+            List<Leaderboard.Entry> top = leaderboard.getTop();
+            count = Math.max(0, Math.min(count, top.size()));
+            StringBuilder reply = new StringBuilder("OK ").append(count);
+            for (int i = 0; i < count; i++) {
+                reply.append(' ').append(top.get(i).getPlayer()).append(' ').append(top.get(i).getScore());
+            }
+            return reply.toString();
+        }
+
+        private String best(String[] parts) {
+            if (leaderboard == null) return "ERR no leaderboard";
+            Leaderboard.Entry entry = leaderboard.getBest(parts[1]);
+            if (entry == null) return "ERR no games for " + parts[1];
+            return "OK " + entry.getScore() + " " + entry.getMaxTile() + " " + entry.getMoves();
+        }
+
+        private String board() {
+            int rows = game.getRows();
+            int cols = game.getCols();
+            StringBuilder reply = new StringBuilder(16 + rows * cols * 3);
+            reply.append("OK ").append(rows).append(' ').append(cols);
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    int exponent = game.getExponent(row, col);
+                    reply.append(' ').append(exponent == 0 ? 0 : 1L << exponent);
+                }
+            }
+            return reply.toString();
+        }
+    }
+
+    private static int parseDirection(String name) {
+        switch (name.toUpperCase()) {
+            case "L":
+            case "LEFT":
+                return BitBoard.LEFT;
+            case "R":
+            case "RIGHT":
+                return BitBoard.RIGHT;
+            case "U":
+            case "UP":
+                return BitBoard.UP;
+            case "D":
+            case "DOWN":
+                return BitBoard.DOWN;
+            default:
+                throw new IllegalArgumentException("unknown direction " + name);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        try (Leaderboard leaderboard = args.length > 1 ? new Leaderboard(Paths.get(args[1]), 100) : null;
+             GameServer server = new GameServer(port, leaderboard,
+                 Integer.getInteger("game.server.maxSessions", DEFAULT_MAX_SESSIONS),
+                 TimeUnit.MINUTES.toMillis(Long.getLong("game.server.idleMinutes",
+                     TimeUnit.MILLISECONDS.toMinutes(DEFAULT_IDLE_TIMEOUT_MILLIS))))) {
+            System.out.println("2048 server listening on port " + server.getPort());
+            server.serve();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Board engine for any rows x cols size
+ * Used by Game for every size except 4x4 (which gets the packed BitBoard).
+ *
+ * The board is a row-major byte[] of exponents (0 = empty, 1 = 2, 2 = 4, ...).
+ * Every direction runs the same in-place kernel over strided lines: rows for
+ * left/right, columns for up/down, read from the side tiles slide toward.
+ * Nothing is allocated per move, so a move costs one pass over the cells.
+ */
+public final class GridBoard {
+    /** Tiles of 2^30 never merge, so a merge always fits an int score */
+    public static final int MAX_EXPONENT = 30;
+
+    private GridBoard() {
+    }
+
+    /**
+     * Slides the whole board in place and returns the points scored
+     * When destinations is not null, also records where each tile went
+     * (see MoveResult) and flags merged destination cells in merged.
+     */
+    public static int move(byte[] cells, int rows, int cols, int direction,
+                           short[] destinations, boolean[] merged) {
+        int points = 0;
+        switch (direction) {
+            case BitBoard.LEFT:
+                for (int row = 0; row < rows; row++) {
+                    points += slideLine(cells, row * cols, 1, cols, destinations, merged);
+                }
+                break;
+            case BitBoard.RIGHT:
+                for (int row = 0; row < rows; row++) {
+                    points += slideLine(cells, row * cols + cols - 1, -1, cols, destinations, merged);
+                }
+                break;
+            case BitBoard.UP:
+                for (int col = 0; col < cols; col++) {
+                    points += slideLine(cells, col, cols, rows, destinations, merged);
+                }
+                break;
+            case BitBoard.DOWN:
+                for (int col = 0; col < cols; col++) {
+                    points += slideLine(cells, (rows - 1) * cols + col, -cols, rows, destinations, merged);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+        return points;
+    }
+
+    /**
+     * Slides one line toward its start: cells start, start + step, ...
+     * Writes never overtake reads, so the line is rewritten in place.
+     */
+    private static int slideLine(byte[] cells, int start, int step, int length,
+                                 short[] destinations, boolean[] merged) {
+        int points = 0;
+        int write = start;
+        int pending = 0; // tile waiting for a possible merge partner
+        int pendingCell = -1;
+        int cell = start;
+        for (int i = 0; i < length; i++, cell += step) {
+            int value = cells[cell];
+            if (value == 0) continue;
+            if (pending == 0) {
+                pending = value;
+                pendingCell = cell;
+            } else if (pending == value && value < MAX_EXPONENT) {
+                cells[write] = (byte) (value + 1);
+                points += 1 << (value + 1);
+                if (destinations != null) {
+                    destinations[pendingCell] = (short) write;
+                    destinations[cell] = (short) write;
+                    merged[write] = true;
+                }
+                write += step;
+                pending = 0;
+            } else {
+                cells[write] = (byte) pending;
+                if (destinations != null) destinations[pendingCell] = (short) write;
+                write += step;
+                pending = value;
+                pendingCell = cell;
+            }
+        }
+        if (pending != 0) {
+            cells[write] = (byte) pending;
+            if (destinations != null) destinations[pendingCell] = (short) write;
+            write += step;
+        }
+        for (int end = start + length * step; write != end; write += step) {
+            cells[write] = 0;
+        }
+        return points;
+    }
+
+    /**
+     * Returns a bitmask of the directions that would change the board
+     * One pass over adjacent pairs: a pair allows a move toward the empty cell
+     * or, when equal, a merge in both directions along its axis.
+     */
+    public static int legalMoves(byte[] cells, int rows, int cols) {
+        int mask = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col + 1 < cols; col++) {
+                mask |= pairMoves(cells[row * cols + col], cells[row * cols + col + 1]);
+            }
+        }
+        for (int col = 0; col < cols; col++) {
+            for (int row = 0; row + 1 < rows; row++) {
+                mask |= pairMoves(cells[row * cols + col], cells[(row + 1) * cols + col]) << BitBoard.UP;
+            }
+        }
+        return mask;
+    }
+
+    /** LEFT/RIGHT bits for a pair (first, second); shifted by UP for columns */
+    private static int pairMoves(int first, int second) {
+        if (first == 0) return second == 0 ? 0 : 1 << BitBoard.LEFT;
+        if (second == 0) return 1 << BitBoard.RIGHT;
+        return first == second && first < MAX_EXPONENT ? (1 << BitBoard.LEFT) | (1 << BitBoard.RIGHT) : 0;
+    }
+
+    /**
+     * Counts the empty cells
+     */
+    public static int countEmpty(byte[] cells) {
+        int empty = 0;
+        for (byte value : cells) {
+            if (value == 0) empty++;
+        }
+        return empty;
+    }
+
+    /**
+     * Gets the largest exponent on the board
+     */
+    public static int maxExponent(byte[] cells) {
+        int max = 0;
+        for (byte value : cells) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    /**
+     * Puts a tile (90% 2, 10% 4) in a uniformly random empty cell
+     * Returns the cell used, or -1 if the board was full.
+     *
+     * @param empty the current number of empty cells
+     */
+    public static int spawn(byte[] cells, int empty, RandomGenerator random) {
+        if (empty == 0) return -1;
+        int skip = random.nextInt(empty);
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == 0 && skip-- == 0) {
+                cells[cell] = (byte) (random.nextInt(10) < 9 ? 1 : 2);
+                return cell;
+            }
+        }
+        throw new IllegalStateException("Empty count out of date: " + empty);
+    }
+}
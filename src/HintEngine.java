@@ -0,0 +1,192 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggests the next move with Monte Carlo rollouts, off the caller's thread
+ * Every legal first move is followed by random play to the end of the game
+ * (or MAX_ROLLOUT_MOVES on big boards);
+ * the move whose rollouts score the most points on average is the hint.
+ *
+ * Rollouts run in rounds (one per legal move) on a background thread. After
+ * each round the current best move is published if it changed, so a hint is
+ * available almost at once and improves until the time budget runs out or
+ * the search is cancelled. Starting a new hint cancels the previous one.
+ */
+public final class HintEngine implements AutoCloseable {
+    // Keeps one rollout on a big board from overrunning the budget
+    private static final int MAX_ROLLOUT_MOVES = 1000;
+
+    /**
+     * Receives hints on the engine's thread (hand them to the EDT yourself)
+     */
+    public interface Listener {
+        /**
+         * @param hint      the search reporting (compare it to the latest one to drop stale hints)
+         * @param direction best move so far (BitBoard.LEFT, RIGHT, UP, DOWN), -1 if none is legal
+         * @param rollouts  games played out so far
+         * @param done      true for the final answer of this search
+         */
+        void hintUpdated(Hint hint, int direction, long rollouts, boolean done);
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "hint-engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final SplittableRandom seeds = new SplittableRandom();
+    private volatile long budgetNanos;
+    private Hint current;
+
+    /**
+     * @param budgetMillis how long each search may run
+     */
+    public HintEngine(long budgetMillis) {
+        setBudgetMillis(budgetMillis);
+    }
+
+    public void setBudgetMillis(long budgetMillis) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("Budget must be positive: " + budgetMillis);
+        }
+        budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * Starts a search from the game's current position
+     * The position is copied here, so the game may change right after.
+     */
+    public synchronized Hint start(Game game, Listener listener) {
+        cancel();
+        Hint hint = new Hint(game, seeds.split(), listener);
+        current = hint;
+        executor.execute(hint::run);
+        return hint;
+    }
+
+    /**
+     * Cancels the search in flight, if any (call it whenever the board changes)
+     */
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancel();
+            current = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    /**
+     * One search: a snapshot of the position plus its running totals
+     */
+    public final class Hint {
+        private final int rows;
+        private final int cols;
+        private final long board;    // 4x4 games
+        private final byte[] cells;  // other sizes
+        private final SplittableRandom random;
+        private final Listener listener;
+        private final double[] totals = new double[4];
+        private final long[] counts = new long[4];
+        private volatile boolean cancelled;
+        private volatile int bestDirection = -1;
+
+        private Hint(Game game, SplittableRandom random, Listener listener) {
+            rows = game.getRows();
+            cols = game.getCols();
+            if (game.isPacked()) {
+                board = game.getPackedBoard();
+                cells = null;
+            } else {
+                board = 0;
+                cells = new byte[rows * cols];
+                game.getExponents(cells);
+            }
+            this.random = random;
+            this.listener = listener;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Gets the best move found so far, -1 before the first round
+         */
+        public int getBestDirection() {
+            return bestDirection;
+        }
+
+        private void run() {
+            long deadline = System.nanoTime() + budgetNanos;
+            byte[] scratch = cells == null ? null : new byte[cells.length];
+            int legal = cells == null ? BitBoard.legalMoves(board) : GridBoard.legalMoves(cells, rows, cols);
+            long rollouts = 0;
+            int published = -1;
+            while (legal != 0 && !cancelled && System.nanoTime() < deadline) {
+                for (int direction = 0; direction < 4; direction++) {
+                    if ((legal & 1 << direction) == 0) continue;
+                    totals[direction] += cells == null ? rollout(board, direction)
+                        : rollout(scratch, direction);
+                    counts[direction]++;
+                    rollouts++;
+                }
+                bestDirection = best(legal);
+                if (bestDirection != published && !cancelled) {
+                    published = bestDirection;
+                    listener.hintUpdated(this, published, rollouts, false);
+                }
+            }
+            if (!cancelled) listener.hintUpdated(this, bestDirection, rollouts, true);
+        }
+
+        private int best(int legal) {
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int direction = 0; direction < 4; direction++) {
+                if ((legal & 1 << direction) == 0) continue;
+                double value = totals[direction] / counts[direction];
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = direction;
+                }
+            }
+            return best;
+        }
+
+        /** Points scored by the first move and random play after it */
+        private long rollout(long board, int first) {
+            long points = BitBoard.moveScore(board, first);
+            board = BitBoard.spawn(BitBoard.move(board, first), random);
+            for (int moves = 1, direction; moves < MAX_ROLLOUT_MOVES
+                    && (direction = MovePolicy.RANDOM.chooseMove(board, random)) >= 0; moves++) {
+                points += BitBoard.moveScore(board, direction);
+                board = BitBoard.spawn(BitBoard.move(board, direction), random);
+            }
+            return points;
+        }
+
+        /** Same as rollout(long, int) on a copy of cells, for boards other than 4x4 */
+        private long rollout(byte[] scratch, int first) {
+            System.arraycopy(cells, 0, scratch, 0, cells.length);
+            long points = 0;
+            for (int moves = 0, direction = first; direction >= 0 && moves < MAX_ROLLOUT_MOVES; moves++) {
+                points += GridBoard.move(scratch, rows, cols, direction, null, null);
+                GridBoard.spawn(scratch, GridBoard.countEmpty(scratch), random);
+                int legal = GridBoard.legalMoves(scratch, rows, cols);
+                direction = legal == 0 ? -1 : BitBoard.select(legal, random.nextInt(Integer.bitCount(legal)));
+            }
+            return points;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent leaderboard of finished games, fed by many sessions at once
+ * Every game is appended to a log file. Submitting only puts the game on a
+ * lock-free queue; one writer thread drains the queue in batches, writes
+ * each batch with a single fsync (group commit) and then updates the
+ * in-memory top-K list and the best game of every player. Readers never
+ * block: the top-K list is republished as an immutable snapshot after each
+ * batch.
+ *
+ * A batch that fails to write is cut off again before the next one, so the
+ * log only ever holds synced batches plus, after a crash, a torn tail. If it
+ * cannot be cut off, the leaderboard stops taking games.
+ *
+ * On open the log is read once from start to end to rebuild the index. A
+ * torn tail (crash mid-write) fails its checksum and is cut off; a damaged
+ * record with intact ones after it is reported and the log left alone.
+ *
+ * Record layout (little-endian): name length (2), name (UTF-8), score (4),
+ * max tile exponent (1), moves (4), seed (8), time in millis (8), CRC32 of
+ * everything before it (4).
+ *
+ * Usage: java Leaderboard FILE [player]  (prints the top list, or one player's best)
+ */
+public final class Leaderboard implements AutoCloseable {
+    private static final int FILE_MAGIC = 0x3142444C; // "LDB1"
+    private static final int FILE_VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int FIXED_BYTES = 2 + 4 + 1 + 4 + 8 + 8 + 4;
+    private static final int MAX_NAME_BYTES = 64;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    // Best first: higher score, then the game logged earlier
+    private static final Comparator<Entry> RANKING =
+        Comparator.comparingInt(Entry::getScore).reversed().thenComparingLong(entry -> entry.sequence);
+
+    /**
+     * One finished game
+     */
+    public static final class Entry {
+        private final String player;
+        private final int score;
+        private final int maxExponent;
+        private final int moves;
+        private final long seed;
+        private final long time;
+        private long sequence; // position in the log, set by the writer
+
+        Entry(String player, int score, int maxExponent, int moves, long seed, long time) {
+            this.player = player;
+            this.score = score;
+            this.maxExponent = maxExponent;
+            this.moves = moves;
+            this.seed = seed;
+            this.time = time;
+        }
+
+        public String getPlayer() {
+            return player;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Gets the largest tile value reached (2048, not 11)
+         */
+        public int getMaxTile() {
+            return maxExponent == 0 ? 0 : 1 << maxExponent;
+        }
+
+        public int getMoves() {
+            return moves;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Gets when the game was submitted, in milliseconds since the epoch
+         */
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-16s %8d %6d %6d  seed %d", player, score, getMaxTile(), moves, seed);
+        }
+    }
+
+    private static final class Pending {
+        final Entry entry;
+        final byte[] name;
+        final CompletableFuture<Entry> done = new CompletableFuture<>();
+
+        Pending(Entry entry, byte[] name) {
+            this.entry = entry;
+            this.name = name;
+        }
+    }
+
+    private final Path path;
+    private final int topK;
+    private final FileChannel channel;
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, Entry> best = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure; // set when a failed write could not be undone
+
+    // Owned by the open thread, then by the writer thread only
+    private final PriorityQueue<Entry> top; // worst of the top K first
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+    private long committed; // end of the last synced batch
+    private volatile long sequence;
+
+    private volatile Entry[] topSnapshot = new Entry[0];
+
+    /**
+     * Opens (or creates) a leaderboard log and rebuilds its index
+     *
+     * @param topK how many of the best games to keep ranked
+     */
+    public Leaderboard(Path path, int topK) throws IOException {
+        this(path, topK, FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Uses an already open channel to the log, which the leaderboard then owns
+     */
+    Leaderboard(Path path, int topK, FileChannel channel) throws IOException {
+        if (topK < 1) {
+            channel.close();
+            throw new IllegalArgumentException("topK must be at least 1: " + topK);
+        }
+        this.path = path;
+        this.topK = topK;
+        this.top = new PriorityQueue<>(topK + 1, RANKING.reversed());
+        this.channel = channel;
+        try {
+            rebuild();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        writer = new Thread(this::writeLoop, "leaderboard-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Reads the log from the start, indexing every intact record
+     */
+    private void rebuild() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            buffer.clear();
+            buffer.putInt(FILE_MAGIC).putInt(FILE_VERSION).flip();
+            while (buffer.hasRemaining()) channel.write(buffer, FILE_HEADER_BYTES - buffer.remaining());
+            channel.force(true);
+            channel.position(FILE_HEADER_BYTES);
+            committed = FILE_HEADER_BYTES;
+            return;
+        }
+        buffer.clear().limit(FILE_HEADER_BYTES);
+        channel.read(buffer, 0);
+        if (buffer.position() < FILE_HEADER_BYTES || buffer.getInt(0) != FILE_MAGIC
+            || buffer.getInt(4) != FILE_VERSION) {
+            throw new IOException("Not a leaderboard log: " + path);
+        }
+
+        long position = FILE_HEADER_BYTES;
+        long readAt = FILE_HEADER_BYTES;
+        buffer.clear().limit(0);
+        byte[] name = new byte[MAX_NAME_BYTES];
+        while (true) {
+            // Refill: keep the unread tail and read the next block behind it
+            buffer.compact();
+            int read = channel.read(buffer, readAt);
+            buffer.flip();
+            if (read > 0) readAt += read;
+            boolean progressed = false;
+            int recordBytes;
+            while ((recordBytes = intactRecord(buffer.position())) >= 0) {
+                int start = buffer.position();
+                int nameLength = recordBytes - FIXED_BYTES;
+                buffer.position(start + 2);
+                buffer.get(name, 0, nameLength);
+                Entry entry = new Entry(new String(name, 0, nameLength, StandardCharsets.UTF_8), buffer.getInt(),
+                    buffer.get(), buffer.getInt(), buffer.getLong(), buffer.getLong());
+                buffer.getInt(); // checksum, checked above
+                index(entry);
+                position += recordBytes;
+                progressed = true;
+            }
+            if (read <= 0 && !progressed) break; // end of file, or damage that no more data can fix
+        }
+        if (position < size) {
+            long next = findIntactRecord(position + 1, size);
+            if (next >= 0) {
+                throw new IOException("Leaderboard " + path + ": damaged record at byte " + position
+                    + " but intact records follow (from byte " + next + "); not truncating");
+            }
+            System.err.println("Leaderboard " + path + ": dropping " + (size - position)
+                + " damaged bytes at the end of the log");
+            channel.truncate(position);
+        }
+        channel.position(position);
+        committed = position;
+        publishTop();
+    }
+
+    /**
+     * Returns the size of the record at buffer[start] if it is whole and its checksum matches, otherwise -1
+     */
+    private int intactRecord(int start) {
+        if (buffer.limit() - start < 2) return -1;
+        int nameLength = buffer.getShort(start) & 0xFFFF;
+        int recordBytes = FIXED_BYTES + nameLength;
+        if (nameLength == 0 || nameLength > MAX_NAME_BYTES || buffer.limit() - start < recordBytes) return -1;
+        crc.reset();
+        ByteBuffer body = buffer.duplicate();
+        body.position(start).limit(start + recordBytes - 4);
+        crc.update(body);
+        return (int) crc.getValue() == buffer.getInt(start + recordBytes - 4) ? recordBytes : -1;
+    }
+
+    /**
+     * Returns the file offset of the first intact record starting in [from, size), or -1 if there is none
+     */
+    private long findIntactRecord(long from, long size) throws IOException {
+        int overlap = FIXED_BYTES + MAX_NAME_BYTES; // so no record is split between windows
+        for (long window = from; window < size; window += BUFFER_BYTES - overlap) {
+            buffer.clear();
+            while (buffer.hasRemaining() && channel.read(buffer, window + buffer.position()) > 0) {
+                // fill the window
+            }
+            buffer.flip();
+            boolean last = window + buffer.limit() >= size;
+            int end = last ? buffer.limit() : buffer.limit() - overlap;
+            for (int start = 0; start < end; start++) {
+                if (intactRecord(start) >= 0) return window + start;
+            }
+            if (last) break;
+        }
+        return -1;
+    }
+
+    /**
+     * Queues a finished game; the future completes once it is on disk and ranked
+     *
+     * @param maxTile the largest tile value reached (e.g. 2048)
+     */
+    public CompletableFuture<Entry> submit(String player, int score, int maxTile, int moves, long seed) {
+        if (closed) throw new IllegalStateException("Leaderboard is closed");
+        if (failure != null) throw new IllegalStateException("Leaderboard log failed", failure);
+        byte[] name = player.getBytes(StandardCharsets.UTF_8);
+        if (name.length == 0 || name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Player name must be 1.." + MAX_NAME_BYTES + " bytes: " + player);
+        }
+        if (maxTile != 0 && Integer.bitCount(maxTile) != 1) {
+            throw new IllegalArgumentException("Not a tile value: " + maxTile);
+        }
+        Entry entry = new Entry(player, score, Integer.numberOfTrailingZeros(maxTile) & 31,
+            moves, seed, System.currentTimeMillis());
+        Pending pending = new Pending(entry, name);
+        queue.offer(pending);
+        LockSupport.unpark(writer);
+        return pending.done;
+    }
+
+    /**
+     * Gets the best games, best first (at most topK)
+     */
+    public List<Entry> getTop() {
+        return Arrays.asList(topSnapshot.clone());
+    }
+
+    /**
+     * Gets a player's best game, or null if they have none
+     */
+    public Entry getBest(String player) {
+        return best.get(player);
+    }
+
+    /**
+     * Gets the number of players with at least one game
+     */
+    public int getPlayerCount() {
+        return best.size();
+    }
+
+    /**
+     * Gets the number of games logged
+     */
+    public long getGameCount() {
+        return sequence;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (true) {
+            Pending next = queue.poll();
+            if (next == null) {
+                if (closed) return;
+                LockSupport.park(this);
+                continue;
+            }
+            if (failure != null) {
+                next.done.completeExceptionally(failure);
+                continue;
+            }
+            // Take everything queued that fits in one buffer, then sync once
+            buffer.clear();
+            do {
+                encode(next);
+                batch.add(next);
+                if (buffer.remaining() < FIXED_BYTES + MAX_NAME_BYTES) break;
+            } while ((next = queue.poll()) != null);
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) channel.write(buffer);
+                channel.force(false);
+                committed = channel.position();
+            } catch (IOException e) {
+                rollBack(e);
+                for (Pending pending : batch) pending.done.completeExceptionally(e);
+                batch.clear();
+                continue;
+            }
+            for (Pending pending : batch) index(pending.entry);
+            publishTop();
+            for (Pending pending : batch) pending.done.complete(pending.entry);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Cuts a failed batch off the log so the next one follows the last synced batch
+     * If even that fails the log can no longer be trusted, and every later game is refused.
+     */
+    private void rollBack(IOException cause) {
+        try {
+            channel.truncate(committed);
+            channel.position(committed);
+        } catch (IOException e) {
+            IOException failed = new IOException("Leaderboard " + path + ": cannot undo a failed write", cause);
+            failed.addSuppressed(e);
+            failure = failed;
+        }
+    }
+
+    private void encode(Pending pending) {
+        Entry entry = pending.entry;
+        int start = buffer.position();
+        buffer.putShort((short) pending.name.length).put(pending.name).putInt(entry.score)
+            .put((byte) entry.maxExponent).putInt(entry.moves).putLong(entry.seed).putLong(entry.time);
+        crc.reset();
+        ByteBuffer body = buffer.duplicate();
+        body.position(start).limit(buffer.position());
+        crc.update(body);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private void index(Entry entry) {
+        entry.sequence = sequence++;
+        best.merge(entry.player, entry, (old, candidate) -> RANKING.compare(candidate, old) < 0 ? candidate : old);
+        if (top.size() < topK) {
+            top.add(entry);
+        } else if (RANKING.compare(entry, top.peek()) < 0) {
+            top.poll();
+            top.add(entry);
+        }
+    }
+
+    private void publishTop() {
+        Entry[] ranked = top.toArray(new Entry[0]);
+        Arrays.sort(ranked, RANKING);
+        topSnapshot = ranked;
+    }
+
+    /**
+     * Writes out every game submitted so far, then closes the log
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Only games that raced with close() can be left
+        Pending late;
+        while ((late = queue.poll()) != null) {
+            late.done.completeExceptionally(new IllegalStateException("Leaderboard is closed"));
+        }
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java Leaderboard FILE [player]");
+            System.exit(2);
+        }
+        try (Leaderboard leaderboard = new Leaderboard(Paths.get(args[0]), 20)) {
+            if (args.length > 1) {
+                Entry entry = leaderboard.getBest(args[1]);
+                System.out.println(entry == null ? "No games for " + args[1] : entry.toString());
+                return;
+            }
+            System.out.println(leaderboard.getGameCount() + " games by " + leaderboard.getPlayerCount() + " players");
+            int rank = 1;
+            for (Entry entry : leaderboard.getTop()) {
+                System.out.printf("%3d. %s%n", rank++, entry);
+            }
+        }
+    }
+}
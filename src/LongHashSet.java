@@ -0,0 +1,94 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of long keys
+ * One flat long[] with linear probing, so millions of boards cost one array
+ * object instead of millions of boxed Longs and nodes. Key 0 marks a free
+ * slot, so it is tracked with a separate flag.
+ *
+ * Not thread-safe.
+ */
+final class LongHashSet {
+    private long[] keys;
+    private int size; // not counting the zero key
+    private boolean hasZero;
+
+    LongHashSet(int expected) {
+        keys = new long[Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1];
+    }
+
+    int size() {
+        return size + (hasZero ? 1 : 0);
+    }
+
+    /**
+     * Adds a key; returns false if it was already present
+     */
+    boolean add(long key) {
+        if (key == 0) {
+            boolean added = !hasZero;
+            hasZero = true;
+            return added;
+        }
+        if (2 * (size + 1) > keys.length) resize(keys.length * 2);
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            long present = keys[slot];
+            if (present == 0) {
+                keys[slot] = key;
+                size++;
+                return true;
+            }
+            if (present == key) return false;
+        }
+    }
+
+    boolean contains(long key) {
+        if (key == 0) return hasZero;
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            long present = keys[slot];
+            if (present == 0) return false;
+            if (present == key) return true;
+        }
+    }
+
+    /**
+     * Removes every key but keeps the capacity
+     */
+    void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZero = false;
+    }
+
+    /**
+     * Copies the keys into a new array, in no particular order
+     */
+    long[] toArray() {
+        long[] result = new long[size()];
+        int count = 0;
+        if (hasZero) result[count++] = 0;
+        for (long key : keys) {
+            if (key != 0) result[count++] = key;
+        }
+        return result;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        keys = new long[capacity];
+        int mask = capacity - 1;
+        for (long key : oldKeys) {
+            if (key == 0) continue;
+            int slot = slot(key, mask);
+            while (keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = key;
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
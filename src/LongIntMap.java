@@ -0,0 +1,98 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from long keys to non-negative int values
+ * Two flat arrays and linear probing, so millions of entries cost two array
+ * objects instead of millions of boxed keys and nodes. Removal shifts the
+ * following entries back, so there are no tombstones to clean up.
+ *
+ * Not thread-safe.
+ */
+final class LongIntMap {
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values; // MISSING marks a free slot
+    private int size;
+
+    LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value for a key, MISSING if absent
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            if (values[slot] == MISSING) return MISSING;
+            if (keys[slot] == key) return values[slot];
+        }
+    }
+
+    /**
+     * Maps a key to a value (value must not be negative)
+     */
+    void put(long key, int value) {
+        if (2 * (size + 1) > keys.length) resize(keys.length * 2);
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (values[slot] != MISSING && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == MISSING) size++;
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /**
+     * Removes a key and returns its value, MISSING if it was absent
+     */
+    int remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (values[slot] != MISSING && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        int removed = values[slot];
+        if (removed == MISSING) return MISSING;
+
+        // Pull back later entries of the run that could live in the hole
+        int hole = slot;
+        for (int next = (hole + 1) & mask; values[next] != MISSING; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        values[hole] = MISSING;
+        size--;
+        return removed;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != MISSING) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
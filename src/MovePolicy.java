@@ -0,0 +1,82 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.random.RandomGenerator;
+
+/**
+ * Strategy that picks the next move for a packed board
+ * Used by the headless Simulator (and anything else that plays without a human).
+ */
+public interface MovePolicy {
+    /**
+     * Picks a direction (BitBoard.LEFT, RIGHT, UP, DOWN), or -1 when no move is legal
+     *
+     * @param board  the current packed board
+     * @param random the calling worker's generator, for policies that need one
+     */
+    int chooseMove(long board, RandomGenerator random);
+
+    /**
+     * Any legal move, uniformly at random
+     */
+    MovePolicy RANDOM = (board, random) -> {
+        int legal = BitBoard.legalMoves(board);
+        if (legal == 0) return -1;
+        return BitBoard.select(legal, random.nextInt(Integer.bitCount(legal)));
+    };
+
+    /**
+     * The move that scores the most points now, then leaves the most empty cells
+     */
+    MovePolicy GREEDY = (board, random) -> {
+        int best = -1;
+        long bestValue = -1;
+        for (int direction = 0; direction < 4; direction++) {
+            long next = BitBoard.move(board, direction);
+            if (next == board) continue;
+            long value = (long) BitBoard.moveScore(board, direction) * BitBoard.CELLS
+                + BitBoard.countEmpty(next);
+            if (value > bestValue) {
+                bestValue = value;
+                best = direction;
+            }
+        }
+        return best;
+    };
+
+    /**
+     * Keeps the big tiles in the bottom-left corner: down, then left, then right, up last
+     */
+    MovePolicy CORNER = (board, random) -> {
+        int legal = BitBoard.legalMoves(board);
+        if ((legal & 1 << BitBoard.DOWN) != 0) return BitBoard.DOWN;
+        if ((legal & 1 << BitBoard.LEFT) != 0) return BitBoard.LEFT;
+        if ((legal & 1 << BitBoard.RIGHT) != 0) return BitBoard.RIGHT;
+        if ((legal & 1 << BitBoard.UP) != 0) return BitBoard.UP;
+        return -1;
+    };
+
+    /**
+     * Looks up a built-in policy by name: random, greedy or corner,
+     * or ntuple:FILE for an NTupleNetwork trained by TDTrainer
+     */
+    static MovePolicy forName(String name) {
+        if (name.startsWith("ntuple:")) {
+            try {
+                return NTupleNetwork.load(Paths.get(name.substring("ntuple:".length())));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        switch (name.toLowerCase()) {
+            case "random":
+                return RANDOM;
+            case "greedy":
+                return GREEDY;
+            case "corner":
+                return CORNER;
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+}
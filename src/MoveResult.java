@@ -0,0 +1,112 @@
+import java.util.Arrays;
+
+/**
+ * Description of one move, filled in by Game.move(direction, result)
+ * Says where every tile went, which destinations hold a merged tile and
+ * where the new tile spawned, so the board can be animated without diffing
+ * whole boards. Instances are reusable: each move overwrites the last one.
+ *
+ * Cells are numbered row * cols + col; tiles are given as exponents.
+ */
+public final class MoveResult {
+    int direction = -1;
+    int rows;
+    int cols;
+    int scoreGained;
+    int spawnCell = -1;
+    byte[] before = new byte[0];
+    byte[] after = new byte[0];
+    short[] destinations = new short[0];
+    boolean[] merged = new boolean[0];
+
+    /**
+     * Prepares the arrays for a board of the given size (reallocating only on resize)
+     */
+    void reset(int rows, int cols) {
+        int cells = rows * cols;
+        if (before.length != cells) {
+            before = new byte[cells];
+            after = new byte[cells];
+            destinations = new short[cells];
+            merged = new boolean[cells];
+        }
+        this.rows = rows;
+        this.cols = cols;
+        direction = -1;
+        scoreGained = 0;
+        spawnCell = -1;
+        Arrays.fill(destinations, (short) -1);
+        Arrays.fill(merged, false);
+    }
+
+    /**
+     * Copies another result into this one
+     */
+    public void copyFrom(MoveResult other) {
+        reset(other.rows, other.cols);
+        direction = other.direction;
+        scoreGained = other.scoreGained;
+        spawnCell = other.spawnCell;
+        System.arraycopy(other.before, 0, before, 0, before.length);
+        System.arraycopy(other.after, 0, after, 0, after.length);
+        System.arraycopy(other.destinations, 0, destinations, 0, destinations.length);
+        System.arraycopy(other.merged, 0, merged, 0, merged.length);
+    }
+
+    /**
+     * Gets the direction played (BitBoard.LEFT, RIGHT, UP, DOWN)
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the exponent at a cell before the move (0 = empty)
+     */
+    public int getBefore(int cell) {
+        return before[cell];
+    }
+
+    /**
+     * Gets the exponent at a cell after the move and its spawn (0 = empty)
+     */
+    public int getAfter(int cell) {
+        return after[cell];
+    }
+
+    /**
+     * Gets the points the move scored
+     */
+    public int getScoreGained() {
+        return scoreGained;
+    }
+
+    /**
+     * Gets the cell the tile starting at the given cell slid to, -1 if it was empty
+     */
+    public int getDestination(int cell) {
+        return destinations[cell];
+    }
+
+    /**
+     * Returns true if the tile that ended up at the given cell is a merge
+     */
+    public boolean isMerged(int cell) {
+        return merged[cell];
+    }
+
+    /**
+     * Gets the cell where the new tile appeared, -1 if none did
+     */
+    public int getSpawnCell() {
+        return spawnCell;
+    }
+}
@@ -0,0 +1,237 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * N-tuple network: a learned value function for packed 4x4 boards
+ * Each tuple is a fixed list of cells; the exponents in those cells index a
+ * weight table (16^n entries for n cells). The value of a board is the sum
+ * of the looked-up weights over every tuple in all 8 rotations/reflections
+ * of the board, which share one table per tuple.
+ *
+ * Weights are plain float[] arrays with no locking. TDTrainer updates them
+ * from many threads at once (Hogwild): a lost update now and then costs
+ * nothing measurable, while locks would serialise every move.
+ *
+ * As a MovePolicy it plays greedily: the move maximising the points it
+ * scores plus the value of the board it leaves (before the spawn).
+ *
+ * File format (little-endian): magic "NTUP", version, tuple count, then each
+ * tuple's length and cells, then every tuple's weights in order.
+ */
+public final class NTupleNetwork implements MovePolicy {
+    /** Four 6-tuples (two straight, two 2x3 rectangles): 4 x 16M weights, 256 MB */
+    public static final int[][] DEFAULT_TUPLES = {
+        {0, 1, 2, 3, 4, 5},
+        {4, 5, 6, 7, 8, 9},
+        {0, 1, 2, 4, 5, 6},
+        {4, 5, 6, 8, 9, 10},
+    };
+
+    private static final int MAGIC = 0x5055544E; // "NTUP"
+    private static final int VERSION = 1;
+    private static final int SYMMETRIES = 8;
+    // 16^7 weights (1 GB) per tuple is already far beyond any useful network
+    private static final int MAX_TUPLE_CELLS = 7;
+
+    private final int[][] tuples;
+    private final float[][] weights;
+    // Nibble shifts of each tuple under each symmetry: [tuple * 8 + symmetry][cell]
+    private final int[][] shifts;
+
+    /**
+     * Creates a network with all weights zero
+     *
+     * @param tuples cell lists (cell = 4 * row + col), at most 7 cells each
+     */
+    public NTupleNetwork(int[][] tuples) {
+        this.tuples = new int[tuples.length][];
+        this.weights = new float[tuples.length][];
+        this.shifts = new int[tuples.length * SYMMETRIES][];
+        for (int t = 0; t < tuples.length; t++) {
+            int[] cells = tuples[t].clone();
+            if (cells.length < 1 || cells.length > MAX_TUPLE_CELLS) {
+                throw new IllegalArgumentException("Tuples need 1 to " + MAX_TUPLE_CELLS + " cells: " + cells.length);
+            }
+            this.tuples[t] = cells;
+            this.weights[t] = new float[1 << (4 * cells.length)];
+            for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+                int[] mapped = new int[cells.length];
+                for (int i = 0; i < cells.length; i++) {
+                    if (cells[i] < 0 || cells[i] >= BitBoard.CELLS) {
+                        throw new IllegalArgumentException("No such cell: " + cells[i]);
+                    }
+                    mapped[i] = 4 * transform(cells[i], symmetry);
+                }
+                shifts[t * SYMMETRIES + symmetry] = mapped;
+            }
+        }
+    }
+
+    public NTupleNetwork() {
+        this(DEFAULT_TUPLES);
+    }
+
+    /**
+     * Maps a cell through one of the 8 symmetries of the square
+     * (bit 0: mirror columns, bit 1: mirror rows, bit 2: transpose)
+     */
+    private static int transform(int cell, int symmetry) {
+        int row = cell / BitBoard.SIZE;
+        int col = cell % BitBoard.SIZE;
+        if ((symmetry & 1) != 0) col = BitBoard.SIZE - 1 - col;
+        if ((symmetry & 2) != 0) row = BitBoard.SIZE - 1 - row;
+        if ((symmetry & 4) != 0) {
+            int swap = row;
+            row = col;
+            col = swap;
+        }
+        return row * BitBoard.SIZE + col;
+    }
+
+    /**
+     * Gets the number of weights each board reads (tuples x symmetries)
+     */
+    public int getFeatureCount() {
+        return shifts.length;
+    }
+
+    /**
+     * Estimated points still to come from this board
+     */
+    public float value(long board) {
+        float sum = 0;
+        for (int feature = 0; feature < shifts.length; feature++) {
+            sum += weights[feature / SYMMETRIES][index(board, shifts[feature])];
+        }
+        return sum;
+    }
+
+    /**
+     * Adds delta to every weight the board reads
+     */
+    public void update(long board, float delta) {
+        for (int feature = 0; feature < shifts.length; feature++) {
+            weights[feature / SYMMETRIES][index(board, shifts[feature])] += delta;
+        }
+    }
+
+    private static int index(long board, int[] shifts) {
+        int index = 0;
+        for (int i = 0; i < shifts.length; i++) {
+            index |= (int) ((board >>> shifts[i]) & 0xF) << (4 * i);
+        }
+        return index;
+    }
+
+    @Override
+    public int chooseMove(long board, RandomGenerator random) {
+        int best = -1;
+        float bestValue = Float.NEGATIVE_INFINITY;
+        for (int direction = 0; direction < 4; direction++) {
+            long after = BitBoard.move(board, direction);
+            if (after == board) continue;
+            float value = BitBoard.moveScore(board, direction) + value(after);
+            if (value > bestValue) {
+                bestValue = value;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Writes the tuples and weights to a file
+     */
+    public void save(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int headerBytes = 12;
+            for (int[] cells : tuples) {
+                headerBytes += 4 + 4 * cells.length;
+            }
+            ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(tuples.length);
+            for (int[] cells : tuples) {
+                header.putInt(cells.length);
+                for (int cell : cells) {
+                    header.putInt(cell);
+                }
+            }
+            header.flip();
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            for (float[] table : weights) {
+                for (int offset = 0; offset < table.length; ) {
+                    int count = Math.min(table.length - offset, chunk.capacity() / 4);
+                    chunk.clear();
+                    chunk.asFloatBuffer().put(table, offset, count);
+                    chunk.limit(4 * count);
+                    writeFully(channel, chunk);
+                    offset += count;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a network written by save()
+     */
+    public static NTupleNetwork load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not an n-tuple network file: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported n-tuple network version " + version + ": " + path);
+            }
+            // Check every size against the bytes left before allocating anything that large
+            int count = buffer.getInt();
+            if (count < 1 || count > buffer.remaining() / 4) {
+                throw new IOException("Bad tuple count " + count + ": " + path);
+            }
+            int[][] tuples = new int[count][];
+            long weightBytes = 0;
+            for (int t = 0; t < tuples.length; t++) {
+                int length = buffer.getInt();
+                if (length < 1 || length > MAX_TUPLE_CELLS || length > buffer.remaining() / 4) {
+                    throw new IOException("Bad tuple length " + length + ": " + path);
+                }
+                tuples[t] = new int[length];
+                for (int i = 0; i < tuples[t].length; i++) {
+                    tuples[t][i] = buffer.getInt();
+                }
+                weightBytes += 4L << (4 * length);
+            }
+            if (weightBytes > buffer.remaining()) {
+                throw new IOException("Truncated n-tuple network file: " + path);
+            }
+            NTupleNetwork network = new NTupleNetwork(tuples);
+            for (float[] table : network.weights) {
+                if (buffer.remaining() < 4L * table.length) {
+                    throw new IOException("Truncated n-tuple network file: " + path);
+                }
+                buffer.asFloatBuffer().get(table);
+                buffer.position(buffer.position() + 4 * table.length);
+            }
+            return network;
+        } catch (IllegalArgumentException | NegativeArraySizeException | BufferUnderflowException e) {
+            throw new IOException("Corrupt n-tuple network file: " + path, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Counts every 4x4 position reachable from a start position, ply by ply
+ * A ply is one legal move followed by one tile spawn, and every spawn outcome
+ * is taken: each empty cell, with a 2 or a 4. Positions reached in more than
+ * one way are counted once per ply (LongHashSet), which keeps deep plies
+ * tractable.
+ *
+ * The distinct-position count and an order-independent hash of each ply are
+ * fixed for a given start, so they check any rewrite of the move code
+ * exactly (PerftTest pins them for seed 1 to depth 6); positions generated
+ * per second is the engine's raw throughput.
+ *
+ * Usage: java Perft [depth] [start]
+ *        start is a seed for new Game(seed) (default 1) or a packed board in hex (0x...)
+ */
+public class Perft {
+    // Guess for the first ply's growth; later plies use the previous ply's
+    private static final double FIRST_GROWTH = 8;
+    // Largest set allocated up front; beyond this the set resizes as it fills
+    private static final int MAX_PRESIZE = 1 << 24;
+
+    /**
+     * Counts for one ply
+     */
+    public static final class Ply {
+        private final int depth;
+        private final long positions;
+        private final long generated;
+        private final long moves;
+        private final long hash;
+        private final long nanos;
+
+        Ply(int depth, long positions, long generated, long moves, long hash, long nanos) {
+            this.depth = depth;
+            this.positions = positions;
+            this.generated = generated;
+            this.moves = moves;
+            this.hash = hash;
+            this.nanos = nanos;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Gets the number of distinct positions at this ply
+         */
+        public long getPositions() {
+            return positions;
+        }
+
+        /**
+         * Gets the number of positions generated, before removing duplicates
+         */
+        public long getGenerated() {
+            return generated;
+        }
+
+        /**
+         * Gets the number of legal moves made to reach this ply
+         */
+        public long getMoves() {
+            return moves;
+        }
+
+        /**
+         * Gets a hash of the set of positions, independent of their order
+         */
+        public long getHash() {
+            return hash;
+        }
+
+        public double getGeneratedPerSecond() {
+            return nanos == 0 ? 0 : generated * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%5d %14d %14d %12d  %016x %9.1f %12.0f", depth, positions, generated,
+                moves, hash, nanos / 1e6, getGeneratedPerSecond());
+        }
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * Enumerates plies 1..depth from the start board
+     */
+    public static Ply[] run(long start, int depth) {
+        Ply[] plies = new Ply[depth];
+        long[] frontier = {start};
+        double growth = FIRST_GROWTH;
+        for (int ply = 1; ply <= depth; ply++) {
+            long begin = System.nanoTime();
+            LongHashSet next = new LongHashSet((int) Math.min(MAX_PRESIZE, Math.ceil(frontier.length * growth)));
+            long generated = 0;
+            long moves = 0;
+            long hash = 0;
+            for (long board : frontier) {
+                for (int direction = BitBoard.LEFT; direction <= BitBoard.DOWN; direction++) {
+                    long moved = BitBoard.move(board, direction);
+                    if (moved == board) continue;
+                    moves++;
+                    for (int empty = BitBoard.emptyMask(moved); empty != 0; empty &= empty - 1) {
+                        int shift = 4 * Integer.numberOfTrailingZeros(empty);
+                        long two = moved | 1L << shift;
+                        long four = moved | 2L << shift;
+                        if (next.add(two)) hash += mix(two);
+                        if (next.add(four)) hash += mix(four);
+                        generated += 2;
+                    }
+                }
+            }
+            long[] previous = frontier;
+            frontier = next.toArray();
+            if (previous.length > 0) growth = (double) frontier.length / previous.length;
+            plies[ply - 1] = new Ply(ply, frontier.length, generated, moves, hash, System.nanoTime() - begin);
+        }
+        return plies;
+    }
+
+    private static long mix(long board) {
+        // Murmur3 finalizer, as in EvalCache
+        long h = board;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String startArg = args.length > 1 ? args[1] : "1";
+        long start = startArg.startsWith("0x")
+            ? Long.parseUnsignedLong(startArg.substring(2), 16)
+            : new Game(Long.parseLong(startArg)).getPackedBoard();
+
+        System.out.printf("Start %016x%n", start);
+        System.out.println("Depth      Positions      Generated        Moves  Hash                    ms  Generated/s");
+        for (Ply ply : run(start, depth)) {
+            System.out.println(ply);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Compact record of one seeded 4x4 game: the seed plus every move made
+ * A game created with new Game(seed) spawns exactly the same tiles for the
+ * same moves, so the seed and the moves (2 bits each, four per byte) are
+ * enough to rebuild it. The final score and board are stored too, so a
+ * replay can be checked against what the player claims.
+ *
+ * Record layout (little-endian): seed (8), move count (4), final score (4),
+ * final board (8), then the moves packed from the low bits of each byte.
+ *
+ * Record only moves that changed the board (Game.move returned true).
+ * ReplayWriter appends records to a log file; ReplayVerifier checks a log.
+ */
+public final class Replay {
+    // Replay log files (ReplayWriter): magic "2RPL", version, then records back to back
+    static final int FILE_MAGIC = 0x4C505232;
+    static final int FILE_VERSION = 1;
+    static final int FILE_HEADER_BYTES = 8;
+
+    static final int HEADER_BYTES = 24;
+
+    /**
+     * Sees each move as simulate() replays it
+     */
+    interface MoveListener {
+        /**
+         * @param index  move number, from 0
+         * @param slid   the board after the slide, before the spawn
+         * @param points points scored by the slide
+         */
+        void move(int index, long slid, int points);
+    }
+
+    private static final MoveListener IGNORE_MOVES = (index, slid, points) -> { };
+
+    private final long seed;
+    private byte[] moves = new byte[64];
+    private int moveCount;
+    private int finalScore;
+    private long finalBoard;
+
+    public Replay(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Gets the direction of the i-th move (BitBoard.LEFT, RIGHT, UP, DOWN)
+     */
+    public int getMove(int i) {
+        return (moves[i >>> 2] >>> (2 * (i & 3))) & 3;
+    }
+
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    public long getFinalBoard() {
+        return finalBoard;
+    }
+
+    /**
+     * Appends a move that changed the board
+     */
+    public void addMove(int direction) {
+        if (direction < BitBoard.LEFT || direction > BitBoard.DOWN) {
+            throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+        if (moveCount >>> 2 == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[moveCount >>> 2] |= (byte) (direction << (2 * (moveCount & 3)));
+        moveCount++;
+    }
+
+    /**
+     * Drops the last move, e.g. after Game.undo()
+     */
+    public void removeLastMove() {
+        if (moveCount == 0) return;
+        moveCount--;
+        moves[moveCount >>> 2] &= (byte) ~(3 << (2 * (moveCount & 3)));
+    }
+
+    /**
+     * Stores the game's final score and board as the claimed result
+     */
+    public void finish(Game game) {
+        finalScore = game.getScore();
+        finalBoard = game.getPackedBoard();
+    }
+
+    /**
+     * Gets the size of this replay's record in bytes
+     */
+    public int byteSize() {
+        return HEADER_BYTES + (moveCount + 3) / 4;
+    }
+
+    /**
+     * Writes the record at the buffer's position (the buffer must be little-endian)
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putLong(seed).putInt(moveCount).putInt(finalScore).putLong(finalBoard);
+        out.put(moves, 0, (moveCount + 3) / 4);
+    }
+
+    /**
+     * Reads a record written by writeTo from the buffer's position
+     * Throws IllegalArgumentException if the move count is negative or runs past the buffer.
+     */
+    public static Replay readFrom(ByteBuffer in) {
+        Replay replay = new Replay(in.getLong());
+        replay.moveCount = in.getInt();
+        // The score and board (12 bytes) come before the moves
+        if (replay.moveCount < 0 || (replay.moveCount + 3L) / 4 > in.remaining() - 12) {
+            throw new IllegalArgumentException("Bad move count " + replay.moveCount + " for "
+                + in.remaining() + " remaining bytes");
+        }
+        replay.finalScore = in.getInt();
+        replay.finalBoard = in.getLong();
+        replay.moves = new byte[Math.max(1, (replay.moveCount + 3) / 4)];
+        in.get(replay.moves, 0, (replay.moveCount + 3) / 4);
+        return replay;
+    }
+
+    /**
+     * Replays the game and returns true if it reaches the claimed score and board
+     */
+    public boolean verify() {
+        ByteBuffer record = ByteBuffer.allocate(byteSize()).order(ByteOrder.LITTLE_ENDIAN);
+        writeTo(record);
+        return verify(record, 0, new SpawnRandom()) == byteSize();
+    }
+
+    /**
+     * Replays the record at offset straight from the buffer, without objects
+     * Follows Game exactly: two opening spawns, then slide and spawn per move.
+     * Returns the record's size if every move was legal and the result matches
+     * the claim, or minus its size if not (so callers can still skip it).
+     *
+     * @param random reused generator, reseeded here
+     */
+    static int verify(ByteBuffer buffer, int offset, SpawnRandom random) {
+        return simulate(buffer, offset, random, IGNORE_MOVES);
+    }
+
+    /**
+     * Like verify(buffer, offset, random), also passing every legal move to the listener
+     * The listener sees the moves of a record that later fails its claim too.
+     */
+    static int simulate(ByteBuffer buffer, int offset, SpawnRandom random, MoveListener listener) {
+        long seed = buffer.getLong(offset);
+        int count = buffer.getInt(offset + 8);
+        int claimedScore = buffer.getInt(offset + 12);
+        long claimedBoard = buffer.getLong(offset + 16);
+        int size = HEADER_BYTES + (count + 3) / 4;
+
+        random.setState(seed);
+        long board = BitBoard.spawn(BitBoard.spawn(0, random), random);
+        long score = 0;
+        int movesAt = offset + HEADER_BYTES;
+        for (int i = 0; i < count; i += 4) {
+            int packed = buffer.get(movesAt + (i >>> 2));
+            for (int j = i, end = Math.min(count, i + 4); j < end; j++, packed >>>= 2) {
+                int direction = packed & 3;
+                long next = BitBoard.move(board, direction);
+                if (next == board) return -size; // illegal move: forged or corrupt
+                int points = BitBoard.moveScore(board, direction);
+                score += points;
+                listener.move(j, next, points);
+                board = BitBoard.spawn(next, random);
+            }
+        }
+        return score == claimedScore && board == claimedBoard ? size : -size;
+    }
+}
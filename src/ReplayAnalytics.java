@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregate statistics over a replay log of any size
+ * The log is cut into record-aligned regions (ReplayLog.split) and a
+ * fork/join pool re-simulates the regions in parallel with the engine's own
+ * BitBoard moves and spawns, straight from memory-mapped windows. Each task
+ * fills its own Histograms, which are merged as the tasks join, so memory
+ * use does not depend on the number of games.
+ *
+ * Only records that verify (same checks as ReplayVerifier) are counted.
+ *
+ * Usage: java ReplayAnalytics FILE [threads]
+ */
+public final class ReplayAnalytics {
+    // Moves tracked per game for the by-move-number statistics
+    public static final int MAX_TRACKED_MOVES = 8192;
+    private static final long CHUNK_BYTES = 1L << 20;
+    private static final int[] CHECKPOINTS = {100, 200, 500, 1000, 2000, 5000};
+
+    private ReplayAnalytics() {
+    }
+
+    /**
+     * Mergeable counts over a set of games, all in primitive arrays
+     */
+    public static final class Histograms {
+        private long games;
+        private long invalid;
+        private long moves;
+        private final long[] maxTile = new long[16];
+        private final long[] scoreSumAtMove = new long[MAX_TRACKED_MOVES];
+        private final long[] gamesAtMove = new long[MAX_TRACKED_MOVES];
+        // first2048At[m]: games whose 2048 tile appeared on move m + 1; the last slot is "later"
+        private final long[] first2048At = new long[MAX_TRACKED_MOVES + 1];
+        private boolean truncated;
+
+        /**
+         * Adds another set of counts into this one
+         */
+        public void merge(Histograms other) {
+            games += other.games;
+            invalid += other.invalid;
+            moves += other.moves;
+            add(maxTile, other.maxTile);
+            add(scoreSumAtMove, other.scoreSumAtMove);
+            add(gamesAtMove, other.gamesAtMove);
+            add(first2048At, other.first2048At);
+            truncated |= other.truncated;
+        }
+
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) into[i] += from[i];
+        }
+
+        /**
+         * Gets the number of valid games counted
+         */
+        public long getGames() {
+            return games;
+        }
+
+        public long getInvalid() {
+            return invalid;
+        }
+
+        public long getMoves() {
+            return moves;
+        }
+
+        /**
+         * Returns true if the log ended part-way through a record
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        /**
+         * Gets the number of games whose largest tile was 2^exponent
+         */
+        public long getMaxTileCount(int exponent) {
+            return maxTile[exponent];
+        }
+
+        /**
+         * Gets the average score after the given number of moves, over the games that lasted that long
+         */
+        public double getAverageScoreAtMove(int move) {
+            if (move < 1 || move > MAX_TRACKED_MOVES) {
+                throw new IllegalArgumentException("Move must be between 1 and " + MAX_TRACKED_MOVES + ": " + move);
+            }
+            long count = gamesAtMove[move - 1];
+            return count == 0 ? 0 : (double) scoreSumAtMove[move - 1] / count;
+        }
+
+        /**
+         * Gets the number of games that made a 2048 tile within the given number of moves
+         */
+        public long getReached2048By(int move) {
+            long total = 0;
+            for (int i = 0; i < Math.min(move, MAX_TRACKED_MOVES); i++) total += first2048At[i];
+            if (move > MAX_TRACKED_MOVES) total += first2048At[MAX_TRACKED_MOVES];
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("Games:       %d%n", games));
+            out.append(String.format("Invalid:     %d%n", invalid));
+            out.append(String.format("Moves:       %d%n", moves));
+            if (truncated) out.append("Log is truncated (last record incomplete)\n");
+            out.append("Max tile:\n");
+            for (int exponent = 1; exponent < maxTile.length; exponent++) {
+                if (maxTile[exponent] == 0) continue;
+                out.append(String.format("  %6d  %10d  %5.1f%%%n", 1 << exponent, maxTile[exponent],
+                    100.0 * maxTile[exponent] / games));
+            }
+            out.append("Move   avg score   2048 by then\n");
+            for (int move : CHECKPOINTS) {
+                out.append(String.format("  %4d  %10.1f  %5.1f%%%n", move, getAverageScoreAtMove(move),
+                    games == 0 ? 0 : 100.0 * getReached2048By(move) / games));
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * Re-simulates records into one Histograms, reusing its generator and scratch space
+     */
+    private static final class Collector implements ReplayLog.RecordHandler, Replay.MoveListener {
+        final Histograms histograms = new Histograms();
+        private final SpawnRandom random = new SpawnRandom();
+        private final int[] scoreAtMove = new int[MAX_TRACKED_MOVES];
+        // Of the record being replayed
+        private int score;
+        private int first2048;
+
+        @Override
+        public void record(ByteBuffer buffer, int offset, int moveCount, long position) {
+            score = 0;
+            first2048 = -1;
+            if (Replay.simulate(buffer, offset, random, this) < 0) {
+                histograms.invalid++;
+                return;
+            }
+
+            // Only a game that verified is counted; its final board is the claimed one
+            histograms.games++;
+            histograms.moves += moveCount;
+            histograms.maxTile[BitBoard.maxExponent(buffer.getLong(offset + 16))]++;
+            int tracked = Math.min(moveCount, MAX_TRACKED_MOVES);
+            for (int i = 0; i < tracked; i++) {
+                histograms.scoreSumAtMove[i] += scoreAtMove[i];
+                histograms.gamesAtMove[i]++;
+            }
+            if (first2048 >= 0) histograms.first2048At[Math.min(first2048, MAX_TRACKED_MOVES)]++;
+        }
+
+        @Override
+        public void move(int index, long slid, int points) {
+            score += points;
+            if (first2048 < 0 && points >= 2048 && BitBoard.maxExponent(slid) >= 11) first2048 = index;
+            if (index < MAX_TRACKED_MOVES) scoreAtMove[index] = score;
+        }
+    }
+
+    /**
+     * Analyzes the regions between bounds[lo] and bounds[hi], splitting in half until one is left
+     */
+    private static final class RegionTask extends RecursiveTask<Histograms> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int lo;
+        private final int hi;
+
+        RegionTask(FileChannel channel, long[] bounds, int lo, int hi) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Histograms compute() {
+            if (hi - lo <= 1) {
+                Collector collector = new Collector();
+                if (hi > lo) {
+                    try {
+                        ReplayLog.forEach(channel, bounds[lo], bounds[hi], collector);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return collector.histograms;
+            }
+            int mid = (lo + hi) >>> 1;
+            RegionTask right = new RegionTask(channel, bounds, mid, hi);
+            right.fork();
+            Histograms histograms = new RegionTask(channel, bounds, lo, mid).compute();
+            histograms.merge(right.join());
+            return histograms;
+        }
+    }
+
+    /**
+     * Analyzes every record in the log using the given number of threads
+     */
+    public static Histograms analyze(Path path, int threads) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (FileChannel channel = ReplayLog.open(path)) {
+            long[] bounds = ReplayLog.split(channel, CHUNK_BYTES);
+            Histograms histograms = pool.invoke(new RegionTask(channel, bounds, 0, bounds.length - 1));
+            histograms.truncated = bounds[bounds.length - 1] < channel.size();
+            return histograms;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java ReplayAnalytics FILE [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        Histograms histograms = analyze(Paths.get(args[0]), threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.print(histograms);
+        System.out.printf("%.2f s, %.0f moves/sec%n", seconds, histograms.getMoves() / seconds);
+    }
+}
@@ -0,0 +1,121 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reading side of replay log files (see Replay and ReplayWriter)
+ * Records are visited straight from memory-mapped windows of the file, so
+ * a log of any size is streamed without loading it or creating objects per
+ * record. Logs can be cut into record-aligned regions for parallel work.
+ */
+final class ReplayLog {
+    private static final long WINDOW_BYTES = 1L << 28;
+
+    /**
+     * Receives one record: its bytes start at offset in buffer (little-endian)
+     */
+    interface RecordHandler {
+        void record(ByteBuffer buffer, int offset, int moveCount, long position);
+    }
+
+    private ReplayLog() {
+    }
+
+    /**
+     * Opens a log for reading after checking its header
+     */
+    static FileChannel open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < Replay.FILE_HEADER_BYTES) {
+                throw new IOException("Not a replay log: " + path);
+            }
+            ByteBuffer header = map(channel, 0, Replay.FILE_HEADER_BYTES);
+            if (header.getInt(0) != Replay.FILE_MAGIC || header.getInt(4) != Replay.FILE_VERSION) {
+                throw new IOException("Not a replay log: " + path);
+            }
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Visits every record that starts in [from, to); from must be a record start
+     * Returns the position after the last complete record, which is less
+     * than to when the log ends part-way through a record.
+     */
+    static long forEach(FileChannel channel, long from, long to, RecordHandler handler) throws IOException {
+        long size = Math.min(to, channel.size());
+        long position = from;
+        ByteBuffer window = null;
+        long windowStart = 0;
+        while (position < size) {
+            if (size - position < Replay.HEADER_BYTES) break;
+            // Remap when the record's header or moves run past the window
+            if (window == null || position + Replay.HEADER_BYTES > windowStart + window.capacity()) {
+                windowStart = position;
+                window = map(channel, position, Math.min(size - position, WINDOW_BYTES));
+            }
+            int offset = (int) (position - windowStart);
+            int count = window.getInt(offset + 8);
+            long recordBytes = Replay.HEADER_BYTES + (count + 3L) / 4;
+            if (count < 0 || position + recordBytes > size) break;
+            if (offset + recordBytes > window.capacity()) {
+                windowStart = position;
+                window = map(channel, position, Math.max(Math.min(size - position, WINDOW_BYTES), recordBytes));
+                offset = 0;
+            }
+            handler.record(window, offset, count, position);
+            position += recordBytes;
+        }
+        return position;
+    }
+
+    /**
+     * Cuts the log into regions of about chunkBytes that start on record boundaries
+     * Returns the region starts followed by the end of the last complete record,
+     * found with one pass that reads only the record headers.
+     */
+    static long[] split(FileChannel channel, long chunkBytes) throws IOException {
+        Splitter splitter = new Splitter(chunkBytes);
+        long end = forEach(channel, Replay.FILE_HEADER_BYTES, Long.MAX_VALUE, splitter);
+        splitter.add(end);
+        return Arrays.copyOf(splitter.bounds, splitter.count);
+    }
+
+    private static final class Splitter implements RecordHandler {
+        final long chunkBytes;
+        long[] bounds = new long[16];
+        int count;
+
+        Splitter(long chunkBytes) {
+            this.chunkBytes = chunkBytes;
+        }
+
+        @Override
+        public void record(ByteBuffer buffer, int offset, int moveCount, long position) {
+            if (count == 0 || position - bounds[count - 1] >= chunkBytes) add(position);
+        }
+
+        void add(long position) {
+            if (count == bounds.length) bounds = Arrays.copyOf(bounds, 2 * count);
+            bounds[count++] = position;
+        }
+    }
+
+    static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Replay record too large: " + length + " bytes");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
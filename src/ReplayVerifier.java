@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * Checks every replay in a replay log against its claimed score and board
+ * The log is memory-mapped in large windows (see ReplayLog) and each record
+ * is replayed in place with BitBoard and a single reused SpawnRandom, so
+ * verification runs at engine speed with no per-record objects.
+ *
+ * Usage: java ReplayVerifier FILE
+ *        java ReplayVerifier --record FILE [games] [policy] [seed]
+ *        (the second form plays games with a MovePolicy and logs them)
+ */
+public final class ReplayVerifier {
+    private static final int MAX_REPORTED = 10;
+
+    private ReplayVerifier() {
+    }
+
+    /**
+     * Outcome of verifying a log
+     */
+    public static final class Result {
+        private long replays;
+        private long valid;
+        private long moves;
+        private long nanos;
+        private boolean truncated;
+        private final long[] invalidOffsets = new long[MAX_REPORTED];
+        private int invalidReported;
+
+        public long getReplays() {
+            return replays;
+        }
+
+        public long getValid() {
+            return valid;
+        }
+
+        public long getInvalid() {
+            return replays - valid;
+        }
+
+        public long getMoves() {
+            return moves;
+        }
+
+        /**
+         * Returns true if the log ended part-way through a record
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        public double getMovesPerSecond() {
+            return nanos == 0 ? 0 : moves * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("Replays:     %d%n", replays));
+            out.append(String.format("Valid:       %d%n", valid));
+            out.append(String.format("Invalid:     %d%n", getInvalid()));
+            out.append(String.format("Moves:       %d%n", moves));
+            out.append(String.format("Moves/sec:   %.0f%n", getMovesPerSecond()));
+            if (truncated) out.append("Log is truncated (last record incomplete)\n");
+            for (int i = 0; i < invalidReported; i++) {
+                out.append(String.format("  invalid record at byte %d%n", invalidOffsets[i]));
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * Replays every record in the log
+     */
+    public static Result verify(Path path) throws IOException {
+        Result result = new Result();
+        SpawnRandom random = new SpawnRandom();
+        long start = System.nanoTime();
+        try (FileChannel channel = ReplayLog.open(path)) {
+            long end = ReplayLog.forEach(channel, Replay.FILE_HEADER_BYTES, Long.MAX_VALUE,
+                (buffer, offset, moveCount, position) -> {
+                    result.replays++;
+                    result.moves += moveCount;
+                    if (Replay.verify(buffer, offset, random) > 0) {
+                        result.valid++;
+                    } else if (result.invalidReported < MAX_REPORTED) {
+                        result.invalidOffsets[result.invalidReported++] = position;
+                    }
+                });
+            result.truncated = end < channel.size();
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Plays games with a policy and appends their replays to the log
+     */
+    static void record(Path path, long games, MovePolicy policy, long seed) throws IOException {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        try (ReplayWriter writer = new ReplayWriter(path)) {
+            for (long i = 0; i < games; i++) {
+                long gameSeed = seeds.nextLong();
+                Game game = new Game(gameSeed);
+                game.setHistoryLimit(0);
+                Replay replay = new Replay(gameSeed);
+                while (!game.isGameOver()) {
+                    int direction = policy.chooseMove(game.getPackedBoard(), seeds);
+                    if (direction < 0 || !game.move(direction)) break;
+                    replay.addMove(direction);
+                }
+                replay.finish(game);
+                writer.write(replay);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 1 && args[0].equals("--record")) {
+            long games = args.length > 2 ? Long.parseLong(args[2]) : 10000;
+            MovePolicy policy = MovePolicy.forName(args.length > 3 ? args[3] : "corner");
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+            record(Paths.get(args[1]), games, policy, seed);
+            System.out.println("Recorded " + games + " games to " + args[1]);
+            return;
+        }
+        if (args.length != 1) {
+            System.err.println("Usage: java ReplayVerifier FILE | --record FILE [games] [policy] [seed]");
+            System.exit(2);
+        }
+        Result result = verify(Paths.get(args[0]));
+        System.out.print(result);
+        if (result.getInvalid() > 0 || result.isTruncated()) System.exit(1);
+    }
+}
@@ -0,0 +1,68 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends Replay records to a replay log file
+ * A new file gets the log header first; an existing log is appended to.
+ * Records are buffered and written in large chunks.
+ */
+public final class ReplayWriter implements AutoCloseable {
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+    public ReplayWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                buffer.putInt(Replay.FILE_MAGIC).putInt(Replay.FILE_VERSION);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(Replay.FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                channel.read(header, 0);
+                if (header.hasRemaining() || header.getInt(0) != Replay.FILE_MAGIC
+                    || header.getInt(4) != Replay.FILE_VERSION) {
+                    throw new IOException("Not a replay log: " + path);
+                }
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public void write(Replay replay) throws IOException {
+        int size = replay.byteSize();
+        if (buffer.remaining() < size) {
+            flush();
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        replay.writeTo(buffer);
+    }
+
+    /**
+     * Writes out everything buffered so far
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact store for parked (idle) 4x4 games
+ * A parked game is just its packed board, score and spawn generator state,
+ * kept as a fixed-size record in one off-heap ByteBuffer arena. Nothing is
+ * allocated per game, so millions of parked sessions add neither heap nor
+ * GC work beyond two flat index arrays. load() rehydrates a record into a
+ * fresh Game that continues with the same spawns.
+ *
+ * When the arena is full the least recently used record is written to the
+ * spill file and its slot reused; loading a spilled game brings it back.
+ * Recency is a doubly linked list threaded through the records themselves.
+ *
+ * Only 4x4 (packed) games can be parked. Methods are synchronized.
+ */
+public final class SessionStore implements AutoCloseable {
+    // Arena record layout (bytes)
+    private static final int ID = 0;
+    private static final int BOARD = 8;
+    private static final int SEED = 16;
+    private static final int SCORE = 24;
+    private static final int PREV = 28; // towards the most recently used
+    private static final int NEXT = 32; // towards the least recently used
+    private static final int RECORD_BYTES = 40;
+
+    // Spill file record layout: id, board, seed, score
+    private static final int SPILL_BYTES = 32;
+
+    private static final int NONE = -1;
+
+    private final int capacity;
+    private final ByteBuffer arena;
+    private final LongIntMap resident; // id -> arena slot
+    private final LongIntMap spilled;  // id -> spill file record
+    private final FileChannel spillFile;
+    private final ByteBuffer spillBuffer = ByteBuffer.allocateDirect(SPILL_BYTES).order(ByteOrder.nativeOrder());
+
+    private int usedSlots;         // slots ever handed out; later ones are untouched
+    private int freeSlot = NONE;   // free slots, chained through NEXT
+    private int head = NONE;       // most recently used
+    private int tail = NONE;       // least recently used
+    private int spillRecords;      // records ever written to the file
+    private int[] freeSpill = new int[16];
+    private int freeSpillCount;
+
+    /**
+     * Creates a store holding up to capacity games in memory
+     * The spill file is created (or truncated) and owned by the store.
+     */
+    public SessionStore(int capacity, Path spillPath) throws IOException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        if ((long) capacity * RECORD_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity too large for one arena: " + capacity);
+        }
+        this.capacity = capacity;
+        this.arena = ByteBuffer.allocateDirect(capacity * RECORD_BYTES).order(ByteOrder.nativeOrder());
+        this.resident = new LongIntMap(capacity);
+        this.spilled = new LongIntMap(16);
+        this.spillFile = FileChannel.open(spillPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Parks a game under an id, replacing whatever was parked there
+     * The Game object itself can be dropped afterwards.
+     */
+    public synchronized void park(long id, Game game) throws IOException {
+        long board = game.getPackedBoard();
+        int slot = resident.get(id);
+        if (slot == LongIntMap.MISSING) {
+            freeSpillRecord(spilled.remove(id));
+            slot = allocateSlot();
+            arena.putLong(slot * RECORD_BYTES + ID, id);
+            resident.put(id, slot);
+            linkFirst(slot);
+        } else {
+            touch(slot);
+        }
+        int base = slot * RECORD_BYTES;
+        arena.putLong(base + BOARD, board);
+        arena.putLong(base + SEED, game.spawnSeed());
+        arena.putInt(base + SCORE, game.getScore());
+    }
+
+    /**
+     * Rehydrates a parked game, or returns null if the id is unknown
+     * The record stays parked; park the game again to save its progress.
+     */
+    public synchronized Game load(long id) throws IOException {
+        int slot = resident.get(id);
+        if (slot == LongIntMap.MISSING) {
+            int record = spilled.get(id);
+            if (record == LongIntMap.MISSING) return null;
+            slot = unspill(id, record);
+        } else {
+            touch(slot);
+        }
+        int base = slot * RECORD_BYTES;
+        SpawnRandom random = new SpawnRandom();
+        Game game = new Game(random);
+        random.setState(arena.getLong(base + SEED)); // after the constructor's opening tiles
+        game.setState(arena.getLong(base + BOARD), arena.getInt(base + SCORE));
+        return game;
+    }
+
+    /**
+     * Forgets a parked game; returns false if the id was unknown
+     */
+    public synchronized boolean remove(long id) {
+        int slot = resident.remove(id);
+        if (slot != LongIntMap.MISSING) {
+            unlink(slot);
+            arena.putInt(slot * RECORD_BYTES + NEXT, freeSlot);
+            freeSlot = slot;
+            return true;
+        }
+        int record = spilled.remove(id);
+        freeSpillRecord(record);
+        return record != LongIntMap.MISSING;
+    }
+
+    public synchronized boolean contains(long id) {
+        return resident.get(id) != LongIntMap.MISSING || spilled.get(id) != LongIntMap.MISSING;
+    }
+
+    /**
+     * Gets the number of parked games, in memory and spilled
+     */
+    public synchronized int size() {
+        return resident.size() + spilled.size();
+    }
+
+    /**
+     * Gets the number of parked games held in the arena
+     */
+    public synchronized int getResidentCount() {
+        return resident.size();
+    }
+
+    /**
+     * Gets the number of parked games evicted to the spill file
+     */
+    public synchronized int getSpilledCount() {
+        return spilled.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        spillFile.close();
+    }
+
+    /** A free arena slot, evicting the least recently used record if needed */
+    private int allocateSlot() throws IOException {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = arena.getInt(slot * RECORD_BYTES + NEXT);
+            return slot;
+        }
+        if (usedSlots < capacity) return usedSlots++;
+
+        int slot = tail;
+        spill(slot);
+        unlink(slot);
+        resident.remove(arena.getLong(slot * RECORD_BYTES + ID));
+        return slot;
+    }
+
+    private void spill(int slot) throws IOException {
+        int base = slot * RECORD_BYTES;
+        long id = arena.getLong(base + ID);
+        // Claim the record only once it is written, so a failed write leaks nothing
+        int record = freeSpillCount > 0 ? freeSpill[freeSpillCount - 1] : spillRecords;
+        spillBuffer.clear();
+        spillBuffer.putLong(id)
+            .putLong(arena.getLong(base + BOARD))
+            .putLong(arena.getLong(base + SEED))
+            .putInt(arena.getInt(base + SCORE))
+            .putInt(0)
+            .flip();
+        writeFully((long) record * SPILL_BYTES);
+        if (record == spillRecords) {
+            spillRecords++;
+        } else {
+            freeSpillCount--;
+        }
+        spilled.put(id, record);
+    }
+
+    /**
+     * Reads a spilled record back into the arena and returns its slot
+     * The record stays spilled until the game is in the arena, so an I/O error
+     * (reading it, or spilling another game to make room) loses nothing.
+     */
+    private int unspill(long id, int record) throws IOException {
+        spillBuffer.clear();
+        long position = (long) record * SPILL_BYTES;
+        while (spillBuffer.hasRemaining()) {
+            if (spillFile.read(spillBuffer, position + spillBuffer.position()) < 0) {
+                throw new IOException("Spill file truncated at record " + record);
+            }
+        }
+        spillBuffer.flip();
+        if (spillBuffer.getLong() != id) {
+            throw new IOException("Spill record " + record + " does not belong to session " + id);
+        }
+        long board = spillBuffer.getLong();
+        long seed = spillBuffer.getLong();
+        int score = spillBuffer.getInt();
+
+        int slot = allocateSlot();
+        spilled.remove(id);
+        freeSpillRecord(record);
+        int base = slot * RECORD_BYTES;
+        arena.putLong(base + ID, id);
+        arena.putLong(base + BOARD, board);
+        arena.putLong(base + SEED, seed);
+        arena.putInt(base + SCORE, score);
+        resident.put(id, slot);
+        linkFirst(slot);
+        return slot;
+    }
+
+    private void writeFully(long position) throws IOException {
+        while (spillBuffer.hasRemaining()) {
+            spillFile.write(spillBuffer, position + spillBuffer.position());
+        }
+    }
+
+    private void freeSpillRecord(int record) {
+        if (record == LongIntMap.MISSING) return;
+        if (freeSpillCount == freeSpill.length) {
+            int[] grown = new int[freeSpill.length * 2];
+            System.arraycopy(freeSpill, 0, grown, 0, freeSpillCount);
+            freeSpill = grown;
+        }
+        freeSpill[freeSpillCount++] = record;
+    }
+
+    // ===================== Recency list =====================
+
+    private void touch(int slot) {
+        if (slot == head) return;
+        unlink(slot);
+        linkFirst(slot);
+    }
+
+    private void linkFirst(int slot) {
+        int base = slot * RECORD_BYTES;
+        arena.putInt(base + PREV, NONE);
+        arena.putInt(base + NEXT, head);
+        if (head != NONE) arena.putInt(head * RECORD_BYTES + PREV, slot);
+        head = slot;
+        if (tail == NONE) tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int base = slot * RECORD_BYTES;
+        int prev = arena.getInt(base + PREV);
+        int next = arena.getInt(base + NEXT);
+        if (prev == NONE) head = next; else arena.putInt(prev * RECORD_BYTES + NEXT, next);
+        if (next == NONE) tail = prev; else arena.putInt(next * RECORD_BYTES + PREV, prev);
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless batch runner for 2048
+ * Plays many games in parallel under a MovePolicy, no GUI involved.
+ *
+ * Each worker thread owns its Game, its seeded generator and its Stats, so
+ * nothing is shared while games run; the per-worker Stats are merged once
+ * at the end. Worker w plays an equal share of the games from a generator
+ * seeded with (seed + w), so a run is reproducible for a fixed thread count.
+ *
+ * Usage: java Simulator [games] [threads] [policy] [seed]
+ *        e.g. java Simulator 1000000 8 corner 42
+ */
+public class Simulator {
+    private final MovePolicy policy;
+    private final int threads;
+    private final long seed;
+
+    public Simulator(MovePolicy policy, int threads, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.policy = policy;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the given number of games and returns the merged statistics
+     */
+    public Stats run(long games) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Stats>> results = new ArrayList<>();
+            for (int worker = 0; worker < threads; worker++) {
+                long share = games / threads + (worker < games % threads ? 1 : 0);
+                long workerSeed = new SplittableRandom(seed + worker).nextLong();
+                results.add(executor.submit(() -> play(share, workerSeed)));
+            }
+
+            Stats total = new Stats();
+            for (Future<Stats> result : results) {
+                try {
+                    total.merge(result.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Simulation worker failed", e.getCause());
+                }
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Stats play(long games, long workerSeed) {
+        SplittableRandom random = new SplittableRandom(workerSeed);
+        Game game = new Game(random);
+        game.setHistoryLimit(0); // nobody undoes here
+        Stats stats = new Stats();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < games; i++) {
+            if (i > 0) game.resetGame();
+            long moves = 0;
+            while (!game.isGameOver()) {
+                int direction = policy.chooseMove(game.getPackedBoard(), random);
+                if (direction < 0 || !game.move(direction)) break;
+                moves++;
+            }
+            stats.record(game.getScore(), BitBoard.maxExponent(game.getPackedBoard()), moves);
+        }
+
+        stats.nanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    /**
+     * Aggregated results; one instance per worker, merged at the end
+     */
+    public static final class Stats {
+        private long games;
+        private long moves;
+        private long scoreSum;
+        private long bestScore;
+        private long nanos; // busiest worker's wall time after merging
+        private final long[] maxTileCounts = new long[16]; // indexed by exponent
+
+        void record(int score, int maxExponent, long gameMoves) {
+            games++;
+            moves += gameMoves;
+            scoreSum += score;
+            bestScore = Math.max(bestScore, score);
+            maxTileCounts[maxExponent]++;
+        }
+
+        void merge(Stats other) {
+            games += other.games;
+            moves += other.moves;
+            scoreSum += other.scoreSum;
+            bestScore = Math.max(bestScore, other.bestScore);
+            nanos = Math.max(nanos, other.nanos);
+            for (int i = 0; i < maxTileCounts.length; i++) {
+                maxTileCounts[i] += other.maxTileCounts[i];
+            }
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getMoves() {
+            return moves;
+        }
+
+        public double getAverageScore() {
+            return games == 0 ? 0 : (double) scoreSum / games;
+        }
+
+        public long getBestScore() {
+            return bestScore;
+        }
+
+        /**
+         * Gets how many games ended with the given exponent as their largest tile
+         */
+        public long getMaxTileCount(int exponent) {
+            return maxTileCounts[exponent];
+        }
+
+        public double getGamesPerSecond() {
+            return nanos == 0 ? 0 : games * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("Games:       %d%n", games));
+            out.append(String.format("Avg score:   %.1f%n", getAverageScore()));
+            out.append(String.format("Best score:  %d%n", bestScore));
+            out.append(String.format("Avg moves:   %.1f%n", games == 0 ? 0 : (double) moves / games));
+            out.append(String.format("Games/sec:   %.0f%n", getGamesPerSecond()));
+            out.append(String.format("Moves/sec:   %.0f%n", nanos == 0 ? 0 : moves * 1e9 / nanos));
+            out.append("Max tile:\n");
+            for (int exponent = 1; exponent < maxTileCounts.length; exponent++) {
+                if (maxTileCounts[exponent] == 0) continue;
+                out.append(String.format("  %6d  %6.2f%%%n", 1 << exponent,
+                    100.0 * maxTileCounts[exponent] / games));
+            }
+            return out.toString();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 10000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        MovePolicy policy = MovePolicy.forName(args.length > 2 ? args[2] : "corner");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        System.out.print(new Simulator(policy, threads, seed).run(games));
+    }
+}
@@ -0,0 +1,366 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Expectimax AI for 2048
+ * Picks the best of the four moves for a position by searching the player's
+ * moves (max nodes) and the tile spawns that follow them (chance nodes:
+ * every empty cell, 2 with 90% and 4 with 10%, just like Game.addRandomTile).
+ *
+ * The search deepens one ply at a time until maxDepth or the time budget runs
+ * out. Each iteration fans the root out over the ForkJoinPool, one task per
+ * (move, spawn) pair, and all tasks share one lock-free EvalCache. The cache
+ * is keyed by symmetry, so mirrored and rotated positions are searched once;
+ * one cache can also be shared by several solvers.
+ */
+public class Solver {
+    // Spawns less likely than this along a path are not worth expanding
+    private static final double PROBABILITY_CUTOFF = 0.0001;
+
+    // Heuristic weights (per row; the board score sums rows and columns)
+    private static final float LOST_PENALTY = 200000f;
+    private static final float MONOTONICITY_POWER = 4f;
+    private static final float MONOTONICITY_WEIGHT = 47f;
+    private static final float SUM_POWER = 3.5f;
+    private static final float SUM_WEIGHT = 11f;
+    private static final float MERGES_WEIGHT = 700f;
+    private static final float EMPTY_WEIGHT = 270f;
+    // Rows of a cached heuristic table recomputed before it is trusted
+    private static final int CHECKED_ROWS = 256;
+
+    private static final float[] ROW_HEURISTIC = new float[1 << 16];
+
+    static {
+        long key = heuristicKey();
+        if (!TableCache.load("solver-heuristic", key, ROW_HEURISTIC) || !spotCheckHeuristic()) {
+            generateHeuristic();
+            TableCache.save("solver-heuristic", key, ROW_HEURISTIC);
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final EvalCache cache;
+    private final int maxDepth;
+    private final long timeBudgetNanos;
+
+    // Statistics of the most recent search
+    private volatile long lastNodes;
+    private volatile long lastNanos;
+    private volatile int lastDepth;
+
+    /**
+     * Creates a solver on the common pool with a 2^22-entry cache
+     *
+     * @param maxDepth       deepest search in player moves
+     * @param timeBudgetMillis stop deepening after this long (0 = no limit)
+     */
+    public Solver(int maxDepth, long timeBudgetMillis) {
+        this(ForkJoinPool.commonPool(), new EvalCache(22), maxDepth, timeBudgetMillis);
+    }
+
+    public Solver(ForkJoinPool pool, EvalCache cache, int maxDepth, long timeBudgetMillis) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be at least 1: " + maxDepth);
+        }
+        this.pool = pool;
+        this.cache = cache;
+        this.maxDepth = maxDepth;
+        this.timeBudgetNanos = timeBudgetMillis <= 0 ? Long.MAX_VALUE
+            : TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * Returns the best direction for the game's current board, or -1 if none moves
+     * The search works on packed boards, so the game must be 4x4.
+     */
+    public int bestMove(Game game) {
+        return bestMove(game.getPackedBoard());
+    }
+
+    /**
+     * Returns the best direction (BitBoard.LEFT, RIGHT, UP, DOWN) or -1 if none moves
+     */
+    public int bestMove(long board) {
+        long start = System.nanoTime();
+        long deadline = timeBudgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + timeBudgetNanos;
+        LongAdder nodes = new LongAdder();
+
+        int best = -1;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            Iteration iteration = new Iteration(board, depth, deadline, nodes);
+            pool.invoke(iteration);
+            if (iteration.timedOut) break; // keep the last complete answer
+
+            if (iteration.bestDirection < 0) break; // no legal move at all
+            best = iteration.bestDirection;
+            completedDepth = depth;
+            if (System.nanoTime() >= deadline) break;
+        }
+
+        // Even a blown budget must still answer with a legal move
+        if (best < 0) {
+            for (int direction = 0; direction < 4; direction++) {
+                if (BitBoard.move(board, direction) != board) {
+                    best = direction;
+                    break;
+                }
+            }
+        }
+
+        lastNodes = nodes.sum();
+        lastNanos = System.nanoTime() - start;
+        lastDepth = completedDepth;
+        return best;
+    }
+
+    /**
+     * Gets the number of nodes visited by the last search
+     */
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    /**
+     * Gets the deepest fully completed iteration of the last search
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Gets the search speed of the last search in nodes per second
+     */
+    public double getLastNodesPerSecond() {
+        long nanos = lastNanos;
+        return nanos == 0 ? 0 : lastNodes * 1e9 / nanos;
+    }
+
+    /**
+     * Static evaluation of a board: rows plus columns through the row table
+     */
+    public static float evaluate(long board) {
+        return rowsHeuristic(board) + rowsHeuristic(BitBoard.transpose(board));
+    }
+
+    private static float rowsHeuristic(long board) {
+        return ROW_HEURISTIC[(int) (board & 0xFFFF)]
+            + ROW_HEURISTIC[(int) ((board >>> 16) & 0xFFFF)]
+            + ROW_HEURISTIC[(int) ((board >>> 32) & 0xFFFF)]
+            + ROW_HEURISTIC[(int) (board >>> 48)];
+    }
+
+    private static void generateHeuristic() {
+        int[] line = new int[BitBoard.SIZE];
+        for (int row = 0; row < ROW_HEURISTIC.length; row++) {
+            for (int i = 0; i < line.length; i++) {
+                line[i] = (row >>> (4 * i)) & 0xF;
+            }
+            ROW_HEURISTIC[row] = rowHeuristic(line);
+        }
+    }
+
+    /** Recomputes randomly chosen rows of the (cached) table and returns true if they all match */
+    private static boolean spotCheckHeuristic() {
+        int[] line = new int[BitBoard.SIZE];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int check = 0; check < CHECKED_ROWS; check++) {
+            int row = random.nextInt(ROW_HEURISTIC.length);
+            for (int i = 0; i < line.length; i++) {
+                line[i] = (row >>> (4 * i)) & 0xF;
+            }
+            if (Float.floatToIntBits(rowHeuristic(line)) != Float.floatToIntBits(ROW_HEURISTIC[row])) return false;
+        }
+        return true;
+    }
+
+    /** Fingerprint of the weights, so a cached table is rebuilt after any change */
+    private static long heuristicKey() {
+        long key = 1;
+        for (float weight : new float[] {LOST_PENALTY, MONOTONICITY_POWER, MONOTONICITY_WEIGHT,
+                SUM_POWER, SUM_WEIGHT, MERGES_WEIGHT, EMPTY_WEIGHT}) {
+            key = key * 31 + Float.floatToIntBits(weight);
+        }
+        return key;
+    }
+
+    private static float rowHeuristic(int[] line) {
+        float sum = 0;
+        int empty = 0;
+        int merges = 0;
+        int prev = 0;
+        int counter = 0;
+        for (int rank : line) {
+            sum += (float) Math.pow(rank, SUM_POWER);
+            if (rank == 0) {
+                empty++;
+            } else {
+                if (prev == rank) {
+                    counter++;
+                } else if (counter > 0) {
+                    merges += 1 + counter;
+                    counter = 0;
+                }
+                prev = rank;
+            }
+        }
+        if (counter > 0) merges += 1 + counter;
+
+        // Penalise the row for breaking monotonicity in either direction
+        float monotonicityLeft = 0;
+        float monotonicityRight = 0;
+        for (int i = 1; i < line.length; i++) {
+            float a = (float) Math.pow(line[i - 1], MONOTONICITY_POWER);
+            float b = (float) Math.pow(line[i], MONOTONICITY_POWER);
+            if (line[i - 1] > line[i]) {
+                monotonicityLeft += a - b;
+            } else {
+                monotonicityRight += b - a;
+            }
+        }
+
+        // Each row contributes a quarter of the penalty, twice (rows and columns)
+        return LOST_PENALTY / (2 * BitBoard.SIZE)
+            + EMPTY_WEIGHT * empty
+            + MERGES_WEIGHT * merges
+            - MONOTONICITY_WEIGHT * Math.min(monotonicityLeft, monotonicityRight)
+            - SUM_WEIGHT * sum;
+    }
+
+    /**
+     * One depth of iterative deepening, forked per (move, spawn) at the root
+     */
+    private final class Iteration extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final long board;
+        final int depth;
+        final long deadline;
+        final LongAdder nodes;
+        int bestDirection = -1;
+        boolean timedOut;
+
+        Iteration(long board, int depth, long deadline, LongAdder nodes) {
+            this.board = board;
+            this.depth = depth;
+            this.deadline = deadline;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void compute() {
+            List<Spawn> tasks = new ArrayList<>();
+            long[] after = new long[4];
+            for (int direction = 0; direction < 4; direction++) {
+                after[direction] = BitBoard.move(board, direction);
+                if (after[direction] == board) continue;
+
+                int empty = BitBoard.countEmpty(after[direction]);
+                double probability = 1.0 / empty;
+                for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+                    if (((after[direction] >>> (4 * cell)) & 0xF) != 0) continue;
+                    long tile = 1L << (4 * cell);
+                    tasks.add(new Spawn(direction, after[direction] | tile, 0.9 * probability, 0.9 / empty));
+                    tasks.add(new Spawn(direction, after[direction] | tile << 1, 0.1 * probability, 0.1 / empty));
+                }
+            }
+            invokeAll(tasks);
+
+            double[] values = new double[4];
+            for (Spawn task : tasks) {
+                if (task.search.timedOut) timedOut = true;
+                values[task.direction] += task.weight * task.value;
+            }
+
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int direction = 0; direction < 4; direction++) {
+                if (after[direction] != board && values[direction] > bestValue) {
+                    bestValue = values[direction];
+                    bestDirection = direction;
+                }
+            }
+        }
+
+        /** Value of one spawn after one root move */
+        final class Spawn extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            final int direction;
+            final long board;
+            final double probability;
+            final double weight;
+            final Search search = new Search(deadline);
+            double value;
+
+            Spawn(int direction, long board, double probability, double weight) {
+                this.direction = direction;
+                this.board = board;
+                this.probability = probability;
+                this.weight = weight;
+            }
+
+            @Override
+            protected void compute() {
+                value = search.max(board, depth - 1, probability);
+                nodes.add(search.nodes);
+            }
+        }
+    }
+
+    /**
+     * Single-threaded recursive search state (one per forked task)
+     */
+    private final class Search {
+        final long deadline;
+        long nodes;
+        boolean timedOut;
+
+        Search(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /** Player to move: best of the legal moves, 0 if the game is lost */
+        double max(long board, int depth, double probability) {
+            if (depth == 0) return evaluate(board);
+            if ((++nodes & 0x3FF) == 0 && System.nanoTime() >= deadline) timedOut = true;
+            if (timedOut) return 0;
+
+            double best = 0;
+            for (int direction = 0; direction < 4; direction++) {
+                long next = BitBoard.move(board, direction);
+                if (next != board) {
+                    best = Math.max(best, chance(next, depth, probability));
+                }
+            }
+            return best;
+        }
+
+        /** Tile about to spawn: average over every empty cell and both tile values */
+        double chance(long board, int depth, double probability) {
+            if (probability < PROBABILITY_CUTOFF) return evaluate(board);
+
+            float cached = cache.get(board, depth);
+            if (!Float.isNaN(cached)) return cached;
+            nodes++;
+
+            int empty = BitBoard.countEmpty(board);
+            double each = probability / empty;
+            double total = 0;
+            for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+                if (((board >>> (4 * cell)) & 0xF) != 0) continue;
+                long tile = 1L << (4 * cell);
+                total += 0.9 * max(board | tile, depth - 1, each * 0.9);
+                total += 0.1 * max(board | tile << 1, depth - 1, each * 0.1);
+            }
+            double value = total / empty;
+
+            if (!timedOut) cache.put(board, depth, (float) value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Small seedable generator for tile spawns (SplitMix64, as in SplittableRandom)
+ * Unlike the JDK generators its whole state is one long that can be read back
+ * and restored, so Game can snapshot it for undo/redo and replays.
+ *
+ * Not thread-safe: give every game (or worker) its own instance.
+ */
+public final class SpawnRandom implements RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    /**
+     * Creates a generator with an arbitrary seed
+     */
+    public SpawnRandom() {
+        this(mix(System.nanoTime() ^ Thread.currentThread().getId() * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Creates a generator from a seed; equal seeds give equal sequences
+     */
+    public SpawnRandom(long seed) {
+        this.state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * Gets the full state (pass it to setState to rewind to this point)
+     */
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
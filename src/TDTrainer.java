@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trains an NTupleNetwork by self-play with TD(0) on afterstates
+ * Every move is chosen greedily by the network itself (see NTupleNetwork);
+ * after the next move, the value of the previous afterstate (the board
+ * right after sliding, before the spawn) is pulled toward the points that
+ * move scored plus the value of the new afterstate. A finished game pulls
+ * its last afterstate toward 0.
+ *
+ * Workers play their own games with their own generators and write into
+ * the shared weights without any locking (Hogwild). Moves and spawns are
+ * the engine's own BitBoard.move and BitBoard.spawn.
+ *
+ * Usage: java TDTrainer [games] [threads] [alpha] [output] [seed]
+ *        e.g. java -Xmx1g TDTrainer 200000 8 0.1 ntuple.bin 42
+ */
+public class TDTrainer {
+    private static final long REPORT_EVERY = 1000;
+
+    private final NTupleNetwork network;
+    private final int threads;
+    private final float step; // alpha spread over the features of one board
+    private final long seed;
+
+    // Progress since the last report, shared by all workers
+    private final AtomicLong finished = new AtomicLong();
+    private final LongAdder windowScore = new LongAdder();
+    private final LongAdder windowWins = new LongAdder();
+
+    /**
+     * @param alpha learning rate for a whole board; each weight moves by alpha / features
+     */
+    public TDTrainer(NTupleNetwork network, int threads, float alpha, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.network = network;
+        this.threads = threads;
+        this.step = alpha / network.getFeatureCount();
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the given number of training games across all workers
+     */
+    public void train(long games) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int worker = 0; worker < threads; worker++) {
+                long share = games / threads + (worker < games % threads ? 1 : 0);
+                long workerSeed = new SplittableRandom(seed + worker).nextLong();
+                results.add(executor.submit(() -> play(share, workerSeed, start)));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Training worker failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void play(long games, long workerSeed, long start) {
+        SplittableRandom random = new SplittableRandom(workerSeed);
+        for (long i = 0; i < games; i++) {
+            long board = BitBoard.spawn(BitBoard.spawn(0, random), random);
+            long afterstate = 0;
+            boolean first = true;
+            long score = 0;
+            while (true) {
+                int direction = network.chooseMove(board, random);
+                if (direction < 0) break;
+                int points = BitBoard.moveScore(board, direction);
+                long next = BitBoard.move(board, direction);
+                if (!first) {
+                    float error = points + network.value(next) - network.value(afterstate);
+                    network.update(afterstate, step * error);
+                }
+                first = false;
+                afterstate = next;
+                score += points;
+                board = BitBoard.spawn(next, random);
+            }
+            if (!first) network.update(afterstate, step * -network.value(afterstate));
+            report(score, BitBoard.maxExponent(board), start);
+        }
+    }
+
+    private void report(long score, int maxExponent, long start) {
+        windowScore.add(score);
+        if (maxExponent >= 11) windowWins.increment();
+        long done = finished.incrementAndGet();
+        if (done % REPORT_EVERY == 0) {
+            long scores = windowScore.sumThenReset();
+            long wins = windowWins.sumThenReset();
+            System.out.printf("%10d games  avg score %8.1f  2048 rate %5.1f%%  %6.0f games/s%n", done,
+                (double) scores / REPORT_EVERY, 100.0 * wins / REPORT_EVERY,
+                done * 1e9 / (System.nanoTime() - start));
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        float alpha = args.length > 2 ? Float.parseFloat(args[2]) : 0.1f;
+        Path output = Paths.get(args.length > 3 ? args[3] : "ntuple.bin");
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        NTupleNetwork network = new NTupleNetwork();
+        new TDTrainer(network, threads, alpha, seed).train(games);
+        network.save(output);
+        System.out.println("Saved weights to " + output);
+    }
+}
@@ -0,0 +1,242 @@
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk cache for precomputed lookup tables (the 65536-entry row tables)
+ * A short-lived JVM maps the file and copies it straight into its arrays
+ * instead of regenerating every entry. The tables stay plain arrays, so the
+ * move code reads them exactly as before.
+ *
+ * File layout (little-endian): magic, format version, the caller's key,
+ * payload length, CRC32 of the payload, then each table's raw contents in
+ * order. Anything that does not match (missing, truncated, other key, bad
+ * checksum) is ignored: the tables are generated in memory and the file is
+ * rewritten for the next run. Write failures are ignored too.
+ *
+ * The checksum only catches accidents, so the cache must not be writable by
+ * anyone else: the directory is created owner-only, and a file (or directory)
+ * not owned by the current user, or writable by group or others, is never
+ * read. Callers still check what they load (see fingerprint()) before using it.
+ *
+ * The directory is -Dgame.tables.dir (default: ~/.cache/game2048-tables);
+ * -Dgame.tables=false turns the cache off.
+ */
+final class TableCache {
+    private static final int MAGIC = 0x32303438; // "2048"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 28;
+
+    private static final boolean ENABLED = !"false".equals(System.getProperty("game.tables"));
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private TableCache() {
+    }
+
+    /**
+     * Fills the tables from the named cache file
+     * Returns false, leaving the tables untouched, when the cache is off or the
+     * file is missing or does not match; generate them and call save() then.
+     *
+     * @param key    changes whenever the generated contents would (a version or
+     *               a fingerprint of the parameters the tables are built from)
+     * @param tables char[], byte[], int[] or float[] arrays, always in the same order
+     */
+    static boolean load(String name, long key, Object... tables) {
+        return ENABLED && read(file(name), key, tables);
+    }
+
+    /**
+     * Writes freshly generated tables to the named cache file for later runs
+     */
+    static void save(String name, long key, Object... tables) {
+        if (ENABLED) write(file(name), key, tables);
+    }
+
+    /**
+     * Hashes the tables' contents (FNV-1a over every entry), for checking loaded tables against known values
+     */
+    static long fingerprint(Object... tables) {
+        long hash = 0xCBF29CE484222325L;
+        for (Object table : tables) {
+            int length = Array.getLength(table);
+            hash = (hash ^ length) * 0x100000001B3L;
+            for (int i = 0; i < length; i++) {
+                long value;
+                if (table instanceof char[]) {
+                    value = ((char[]) table)[i];
+                } else if (table instanceof byte[]) {
+                    value = ((byte[]) table)[i];
+                } else if (table instanceof int[]) {
+                    value = ((int[]) table)[i];
+                } else if (table instanceof float[]) {
+                    value = Float.floatToRawIntBits(((float[]) table)[i]);
+                } else {
+                    throw new IllegalArgumentException("Unsupported table type: " + table.getClass());
+                }
+                hash = (hash ^ value) * 0x100000001B3L;
+            }
+        }
+        return hash;
+    }
+
+    private static Path file(String name) {
+        String directory = System.getProperty("game.tables.dir",
+            Paths.get(System.getProperty("user.home"), ".cache", "game2048-tables").toString());
+        return Paths.get(directory, name + ".bin");
+    }
+
+    /**
+     * Returns true if the path is the current user's and nobody else can write to it
+     */
+    private static boolean isPrivate(Path path) throws IOException {
+        UserPrincipal user = FileSystems.getDefault().getUserPrincipalLookupService()
+            .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!user.equals(Files.getOwner(path, LinkOption.NOFOLLOW_LINKS))) return false;
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) return true;
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS);
+        return !permissions.contains(PosixFilePermission.GROUP_WRITE)
+            && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+    }
+
+    private static boolean read(Path file, long key, Object[] tables) {
+        long payload = payloadBytes(tables);
+        try {
+            if (!isPrivate(file.getParent()) || !isPrivate(file)) return false;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS)) {
+            if (channel.size() != HEADER_BYTES + payload) return false;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt() != MAGIC || mapped.getInt() != FORMAT_VERSION
+                || mapped.getLong() != key || mapped.getLong() != payload) {
+                return false;
+            }
+            int checksum = mapped.getInt();
+            CRC32 crc = new CRC32();
+            crc.update(mapped.duplicate());
+            if ((int) crc.getValue() != checksum) return false;
+
+            // Copy into scratch first, so a bad file can never leave half-filled tables
+            ByteBuffer data = mapped.slice().order(ByteOrder.LITTLE_ENDIAN);
+            Object[] copies = new Object[tables.length];
+            for (int i = 0; i < tables.length; i++) {
+                copies[i] = copyOf(data, tables[i]);
+            }
+            for (int i = 0; i < tables.length; i++) {
+                System.arraycopy(copies[i], 0, tables[i], 0, Array.getLength(tables[i]));
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** A new array like table, read from data (which advances past it) */
+    private static Object copyOf(ByteBuffer data, Object table) {
+        if (table instanceof char[]) {
+            char[] copy = new char[((char[]) table).length];
+            data.asCharBuffer().get(copy);
+            data.position(data.position() + 2 * copy.length);
+            return copy;
+        } else if (table instanceof byte[]) {
+            byte[] copy = new byte[((byte[]) table).length];
+            data.get(copy);
+            return copy;
+        } else if (table instanceof int[]) {
+            int[] copy = new int[((int[]) table).length];
+            data.asIntBuffer().get(copy);
+            data.position(data.position() + 4 * copy.length);
+            return copy;
+        } else if (table instanceof float[]) {
+            float[] copy = new float[((float[]) table).length];
+            data.asFloatBuffer().get(copy);
+            data.position(data.position() + 4 * copy.length);
+            return copy;
+        }
+        throw new IllegalArgumentException("Unsupported table type: " + table.getClass());
+    }
+
+    private static void write(Path file, long key, Object[] tables) {
+        long payload = payloadBytes(tables);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_BYTES + payload)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(HEADER_BYTES);
+        for (Object table : tables) {
+            if (table instanceof char[]) {
+                buffer.asCharBuffer().put((char[]) table);
+            } else if (table instanceof byte[]) {
+                buffer.duplicate().put((byte[]) table);
+            } else if (table instanceof int[]) {
+                buffer.asIntBuffer().put((int[]) table);
+            } else {
+                buffer.asFloatBuffer().put((float[]) table);
+            }
+            buffer.position(buffer.position() + (int) tableBytes(table));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, (int) payload);
+        buffer.putInt(0, MAGIC)
+            .putInt(4, FORMAT_VERSION)
+            .putLong(8, key)
+            .putLong(16, payload)
+            .putInt(24, (int) crc.getValue());
+        buffer.rewind();
+
+        // Write a private temp file and rename it, so concurrent JVMs never see half a file
+        try {
+            Path directory = file.getParent();
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            } else {
+                Files.createDirectories(directory);
+            }
+            if (!isPrivate(directory)) return; // it would never be read back
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            // Caching is only an optimisation; the tables are already in memory
+        }
+    }
+
+    private static long payloadBytes(Object[] tables) {
+        long bytes = 0;
+        for (Object table : tables) {
+            bytes += tableBytes(table);
+        }
+        return bytes;
+    }
+
+    private static long tableBytes(Object table) {
+        if (table instanceof char[]) return 2L * ((char[]) table).length;
+        if (table instanceof byte[]) return ((byte[]) table).length;
+        if (table instanceof int[]) return 4L * ((int[]) table).length;
+        if (table instanceof float[]) return 4L * ((float[]) table).length;
+        throw new IllegalArgumentException("Unsupported table type: " + table.getClass());
+    }
+}
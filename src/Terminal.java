@@ -0,0 +1,249 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Text frontends for 2048 that play Game directly, without AWT or Swing
+ * Nothing here touches java.awt or javax.swing, so the JVM starts in a few
+ * tens of milliseconds and no display is needed.
+ *
+ * Interactive mode (stdin is a terminal) redraws the board in place with ANSI
+ * colors and reads single keys: WASD or arrows to move, Z undo, Y redo,
+ * N new game, Q quit. The terminal is switched to raw mode with stty and
+ * restored on exit.
+ *
+ * Script mode (stdin is a pipe or file, or --script) reads lines of keys and
+ * prints the plain board after each line, e.g. printf 'wasd\nddd\n' | java Terminal
+ *
+ * Usage: java Terminal [--script] [rows] [cols] [seed]
+ *        (the seed only applies to 4x4 games)
+ */
+public class Terminal {
+    private static final String CLEAR = "\033[H\033[2J";
+    private static final String HIDE_CURSOR = "\033[?25l";
+    private static final String SHOW_CURSOR = "\033[?25h";
+    private static final String RESET = "\033[0m";
+    private static final int CELL_WIDTH = 7;
+
+    // 256-color backgrounds by exponent (2, 4, 8, ... 32768 and beyond)
+    private static final int[] TILE_COLORS = {
+        236, 230, 223, 215, 209, 203, 196, 229, 228, 227, 226, 220, 214, 208, 202, 160, 124
+    };
+
+    private static final int QUIT = -2;
+    private static final int NONE = -1;
+
+    private final Game game;
+    private final PrintStream out;
+
+    public Terminal(Game game, PrintStream out) {
+        this.game = game;
+        this.out = out;
+    }
+
+    /**
+     * Maps a key to a BitBoard direction, or NONE if it is not a move key
+     */
+    static int direction(int key) {
+        switch (Character.toLowerCase(key)) {
+            case 'w':
+                return BitBoard.UP;
+            case 's':
+                return BitBoard.DOWN;
+            case 'a':
+                return BitBoard.LEFT;
+            case 'd':
+                return BitBoard.RIGHT;
+            default:
+                return NONE;
+        }
+    }
+
+    /**
+     * Applies one non-move key; returns false if it asks to quit
+     */
+    private boolean command(int key) {
+        switch (Character.toLowerCase(key)) {
+            case 'z':
+            case 'u':
+                game.undo();
+                return true;
+            case 'y':
+                game.redo();
+                return true;
+            case 'n':
+                game.resetGame();
+                return true;
+            case 'q':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Interactive play: raw keys in, ANSI frames out
+     */
+    public void play(InputStream in) throws IOException {
+        out.print(HIDE_CURSOR);
+        draw("WASD/arrows move, Z undo, Y redo, N new, Q quit");
+        while (true) {
+            int key = readKey(in);
+            if (key == QUIT) break;
+            String status = "";
+            int direction = direction(key);
+            if (direction != NONE) {
+                if (!game.move(direction)) status = "Can't move that way";
+            } else if (!command(key)) {
+                break;
+            }
+            if (game.isGameOver()) {
+                status = "Game over! N for a new game, Q to quit";
+            } else if (game.hasWon() && status.isEmpty()) {
+                status = "You made 2048! Keep going";
+            }
+            draw(status);
+        }
+        out.print(RESET + SHOW_CURSOR);
+        out.println();
+        out.flush();
+    }
+
+    /**
+     * Reads one key, turning arrow escape sequences into W/A/S/D
+     */
+    private static int readKey(InputStream in) throws IOException {
+        int key = in.read();
+        if (key < 0 || key == 3 || key == 4) return QUIT; // EOF, Ctrl-C, Ctrl-D
+        if (key != 27) return key;
+        int next = in.read();
+        if (next != '[' && next != 'O') return NONE;
+        switch (in.read()) {
+            case 'A':
+                return 'w';
+            case 'B':
+                return 's';
+            case 'C':
+                return 'd';
+            case 'D':
+                return 'a';
+            default:
+                return NONE;
+        }
+    }
+
+    private void draw(String status) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        StringBuilder frame = new StringBuilder(CLEAR.length() + rows * cols * 60);
+        frame.append(CLEAR);
+        frame.append("2048   Score: ").append(game.getScore()).append("\r\n\r\n");
+        for (int row = 0; row < rows; row++) {
+            // Three text lines per tile row, number in the middle one
+            for (int line = 0; line < 3; line++) {
+                for (int col = 0; col < cols; col++) {
+                    int exponent = game.getExponent(row, col);
+                    int color = TILE_COLORS[Math.min(exponent, TILE_COLORS.length - 1)];
+                    frame.append("\033[48;5;").append(color).append(exponent <= 2 ? ";38;5;239m" : ";38;5;231m");
+                    String text = line == 1 && exponent > 0 ? Long.toString(1L << exponent) : "";
+                    int pad = CELL_WIDTH - text.length();
+                    appendSpaces(frame, pad - pad / 2);
+                    frame.append(text);
+                    appendSpaces(frame, pad / 2);
+                }
+                frame.append(RESET).append("\r\n");
+            }
+        }
+        frame.append("\r\n").append(status).append("\r\n");
+        out.print(frame);
+        out.flush();
+    }
+
+    private static void appendSpaces(StringBuilder frame, int count) {
+        for (int i = 0; i < count; i++) frame.append(' ');
+    }
+
+    /**
+     * Script play: each line is a run of keys, answered with the plain board
+     * Whitespace is ignored; keys that cannot move are skipped. Stops at Q or end of input.
+     */
+    public void script(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            boolean quit = false;
+            for (int i = 0; i < line.length() && !quit; i++) {
+                char key = line.charAt(i);
+                int direction = direction(key);
+                if (direction != NONE) {
+                    game.move(direction);
+                } else if (!Character.isWhitespace(key)) {
+                    quit = !command(key);
+                }
+            }
+            printPlain();
+            if (quit) break;
+        }
+    }
+
+    private void printPlain() {
+        StringBuilder text = new StringBuilder();
+        text.append("Score: ").append(game.getScore());
+        if (game.isGameOver()) text.append("  Game over");
+        text.append('\n');
+        for (int row = 0; row < game.getRows(); row++) {
+            for (int col = 0; col < game.getCols(); col++) {
+                int exponent = game.getExponent(row, col);
+                String tile = exponent == 0 ? "." : Long.toString(1L << exponent);
+                appendSpaces(text, 6 - tile.length());
+                text.append(tile);
+            }
+            text.append('\n');
+        }
+        out.print(text);
+        out.flush();
+    }
+
+    /**
+     * Runs a shell command against the controlling terminal, returning its output
+     */
+    private static String stty(String arguments) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("sh", "-c", "stty " + arguments + " < /dev/tty")
+            .redirectErrorStream(true).start();
+        byte[] output = process.getInputStream().readAllBytes();
+        if (process.waitFor() != 0) {
+            throw new IOException("stty failed: " + new String(output, StandardCharsets.UTF_8).trim());
+        }
+        return new String(output, StandardCharsets.UTF_8).trim();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean scripted = args.length > 0 && args[0].equals("--script");
+        int first = scripted ? 1 : 0;
+        int rows = args.length > first ? Integer.parseInt(args[first]) : BitBoard.SIZE;
+        int cols = args.length > first + 1 ? Integer.parseInt(args[first + 1]) : rows;
+        Game game = args.length > first + 2 && rows == BitBoard.SIZE && cols == BitBoard.SIZE
+            ? new Game(Long.parseLong(args[first + 2])) : new Game(rows, cols);
+        Terminal terminal = new Terminal(game, System.out);
+
+        if (scripted || System.console() == null) {
+            terminal.script(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+            return;
+        }
+        String saved = stty("-g");
+        Thread restore = new Thread(() -> {
+            try {
+                stty(saved);
+            } catch (IOException | InterruptedException e) {
+                // Nothing more we can do while the JVM is exiting
+            }
+            System.out.print(RESET + SHOW_CURSOR);
+            System.out.flush();
+        });
+        Runtime.getRuntime().addShutdownHook(restore);
+        stty("-icanon -echo -isig min 1");
+        terminal.play(System.in);
+    }
+}
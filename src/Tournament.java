@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A/B tournament between move policies that stops as soon as the winner is clear
+ * Game i is played once by every policy from the same spawn seed, so the
+ * policies face the same luck and their per-game differences have far less
+ * variance than two independent batches. Games are played in rounds that
+ * double in size, spread over all workers like Simulator; after each round
+ * the paired score differences are tested.
+ *
+ * The test is a z-test on the mean paired difference, made safe for
+ * repeated looks by spending alpha = 1 - confidence over them: look k may
+ * use alpha / (k (k + 1)) (these sum to alpha), split again over the pairs
+ * compared. The run stops once the leader beats every other policy at that
+ * level, or at the game limit.
+ *
+ * Usage: java Tournament POLICY POLICY... [-confidence C] [-games MAX] [-threads T] [-seed S] [-tile]
+ *        e.g. java Tournament corner greedy -confidence 0.99
+ *        (-tile decides on the max tile exponent instead of the score)
+ */
+public class Tournament {
+    private static final long FIRST_ROUND = 256;
+    private static final long MAX_ROUND = 1 << 16;
+
+    private final String[] names;
+    private final MovePolicy[] policies;
+    private final int threads;
+    private final long seed;
+    private final double confidence;
+    private final long maxGames;
+    private final boolean byTile;
+
+    /**
+     * Running count, mean and variance (Welford), mergeable across workers
+     */
+    public static final class RunningStats {
+        private long count;
+        private double mean;
+        private double m2; // sum of squared differences from the mean
+
+        void add(double x) {
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+
+        void merge(RunningStats other) {
+            if (other.count == 0) return;
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * count * other.count / total;
+            count = total;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getVariance() {
+            return count < 2 ? 0 : m2 / (count - 1);
+        }
+
+        /**
+         * Gets the standard error of the mean
+         */
+        public double getStandardError() {
+            return count < 2 ? Double.POSITIVE_INFINITY : Math.sqrt(getVariance() / count);
+        }
+    }
+
+    /**
+     * Everything measured so far; one per worker per round, merged into the total
+     */
+    public static final class Standings {
+        private final RunningStats[] scores;
+        private final RunningStats[] tiles; // max tile exponent
+        private final RunningStats[][] differences; // [i][j], i < j: policy i minus policy j
+
+        Standings(int policies) {
+            scores = new RunningStats[policies];
+            tiles = new RunningStats[policies];
+            differences = new RunningStats[policies][policies];
+            for (int i = 0; i < policies; i++) {
+                scores[i] = new RunningStats();
+                tiles[i] = new RunningStats();
+                for (int j = i + 1; j < policies; j++) differences[i][j] = new RunningStats();
+            }
+        }
+
+        void merge(Standings other) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i].merge(other.scores[i]);
+                tiles[i].merge(other.tiles[i]);
+                for (int j = i + 1; j < scores.length; j++) differences[i][j].merge(other.differences[i][j]);
+            }
+        }
+
+        public long getGames() {
+            return scores[0].getCount();
+        }
+
+        public RunningStats getScore(int policy) {
+            return scores[policy];
+        }
+
+        public RunningStats getMaxTile(int policy) {
+            return tiles[policy];
+        }
+
+        /**
+         * Gets z for the mean of (metric of a minus metric of b) over the paired games
+         */
+        double z(int a, int b) {
+            RunningStats difference = differences[Math.min(a, b)][Math.max(a, b)];
+            double z = difference.getMean() / difference.getStandardError();
+            if (Double.isNaN(z)) z = 0; // identical play so far
+            return a < b ? z : -z;
+        }
+    }
+
+    public Tournament(String[] names, MovePolicy[] policies, int threads, long seed,
+                      double confidence, long maxGames, boolean byTile) {
+        if (policies.length < 2 || names.length != policies.length) {
+            throw new IllegalArgumentException("Need at least two named policies");
+        }
+        if (confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("confidence must be between 0 and 1: " + confidence);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.names = names.clone();
+        this.policies = policies.clone();
+        this.threads = threads;
+        this.seed = seed;
+        this.confidence = confidence;
+        this.maxGames = maxGames;
+        this.byTile = byTile;
+    }
+
+    /**
+     * Plays rounds until one policy is ahead of all others at the confidence level
+     * Prints one line per look. Returns the winner's index, or -1 if the game
+     * limit came first.
+     */
+    public int run() throws InterruptedException {
+        Standings total = new Standings(policies.length);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            long round = FIRST_ROUND;
+            for (int look = 1; total.getGames() < maxGames; look++) {
+                long games = Math.min(round, maxGames - total.getGames());
+                playRound(executor, total.getGames(), games, total);
+                round = Math.min(round * 2, MAX_ROUND);
+
+                // Alpha spent on this look, shared by the leader's comparisons
+                double alpha = (1 - confidence) / ((double) look * (look + 1)) / (policies.length - 1);
+                double critical = normalQuantile(1 - alpha / 2);
+                int leader = leader(total);
+                double weakest = Double.POSITIVE_INFINITY;
+                for (int other = 0; other < policies.length; other++) {
+                    if (other != leader) weakest = Math.min(weakest, total.z(leader, other));
+                }
+                report(total, leader, weakest, critical, System.nanoTime() - start);
+                if (weakest > critical) return leader;
+            }
+            return -1;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int leader(Standings total) {
+        int leader = 0;
+        for (int i = 1; i < policies.length; i++) {
+            if (metric(total, i).getMean() > metric(total, leader).getMean()) leader = i;
+        }
+        return leader;
+    }
+
+    private RunningStats metric(Standings standings, int policy) {
+        return byTile ? standings.tiles[policy] : standings.scores[policy];
+    }
+
+    private void playRound(ExecutorService executor, long first, long games, Standings total)
+            throws InterruptedException {
+        List<Future<Standings>> results = new ArrayList<>();
+        for (int worker = 0; worker < threads; worker++) {
+            long from = first + games * worker / threads;
+            long to = first + games * (worker + 1) / threads;
+            results.add(executor.submit(() -> play(from, to)));
+        }
+        for (Future<Standings> result : results) {
+            try {
+                total.merge(result.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Tournament worker failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Plays games [from, to) with every policy
+     */
+    private Standings play(long from, long to) {
+        Standings standings = new Standings(policies.length);
+        SpawnRandom spawns = new SpawnRandom();
+        Game game = new Game(spawns);
+        game.setHistoryLimit(0);
+        int[] scores = new int[policies.length];
+        int[] tiles = new int[policies.length];
+        for (long index = from; index < to; index++) {
+            // Same spawn seed, and same seed for policies' own randomness, for every policy
+            long gameSeed = new SplittableRandom(seed + index).nextLong();
+            for (int p = 0; p < policies.length; p++) {
+                spawns.setState(gameSeed);
+                game.resetGame(); // now exactly new Game(gameSeed)
+                SplittableRandom random = new SplittableRandom(gameSeed);
+                while (!game.isGameOver()) {
+                    int direction = policies[p].chooseMove(game.getPackedBoard(), random);
+                    if (direction < 0 || !game.move(direction)) break;
+                }
+                scores[p] = game.getScore();
+                tiles[p] = BitBoard.maxExponent(game.getPackedBoard());
+                standings.scores[p].add(scores[p]);
+                standings.tiles[p].add(tiles[p]);
+            }
+            for (int i = 0; i < policies.length; i++) {
+                for (int j = i + 1; j < policies.length; j++) {
+                    standings.differences[i][j].add(byTile ? tiles[i] - tiles[j] : scores[i] - scores[j]);
+                }
+            }
+        }
+        return standings;
+    }
+
+    private void report(Standings total, int leader, double z, double critical, long nanos) {
+        StringBuilder line = new StringBuilder(String.format("%9d games", total.getGames()));
+        for (int i = 0; i < policies.length; i++) {
+            line.append(String.format("  %s %.1f (sd %.0f, tile %.2f)", names[i], total.scores[i].getMean(),
+                Math.sqrt(total.scores[i].getVariance()), total.tiles[i].getMean()));
+        }
+        line.append(String.format("  leader %s z %.2f / %.2f  %.1f s", names[leader], z, critical, nanos / 1e9));
+        System.out.println(line);
+    }
+
+    /**
+     * Inverse of the standard normal CDF (Acklam's approximation, relative error below 1.2e-9)
+     */
+    static double normalQuantile(double p) {
+        if (p <= 0 || p >= 1) throw new IllegalArgumentException("p must be in (0, 1): " + p);
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low || p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(Math.min(p, 1 - p)));
+            double x = (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+            return p < low ? x : -x;
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+            / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        List<String> names = new ArrayList<>();
+        double confidence = 0.99;
+        long maxGames = 10_000_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        boolean byTile = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-confidence":
+                    confidence = Double.parseDouble(args[++i]);
+                    break;
+                case "-games":
+                    maxGames = Long.parseLong(args[++i]);
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "-tile":
+                    byTile = true;
+                    break;
+                default:
+                    names.add(args[i]);
+            }
+        }
+        if (names.size() < 2) {
+            System.err.println("Usage: java Tournament POLICY POLICY... [-confidence C] [-games MAX]"
+                + " [-threads T] [-seed S] [-tile]");
+            System.exit(2);
+        }
+        MovePolicy[] policies = new MovePolicy[names.size()];
+        for (int i = 0; i < policies.length; i++) policies[i] = MovePolicy.forName(names.get(i));
+
+        Tournament tournament = new Tournament(names.toArray(new String[0]), policies, threads, seed,
+            confidence, maxGames, byTile);
+        int winner = tournament.run();
+        System.out.println(winner < 0 ? "No clear winner within the game limit"
+            : "Winner: " + names.get(winner) + " at " + (confidence * 100) + "% confidence");
+    }
+}
@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GameServerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void gameEndingAgainstClosedLeaderboardKeepsConnection() throws IOException {
+        Leaderboard leaderboard = new Leaderboard(dir.resolve("scores.log"), 10);
+        leaderboard.close();
+        try (GameServer server = new GameServer(0, leaderboard)) {
+            Thread serving = new Thread(() -> {
+                try {
+                    server.serve();
+                } catch (IOException e) {
+                    // closed by the test
+                }
+            });
+            serving.setDaemon(true);
+            serving.start();
+
+            try (Socket socket = new Socket("localhost", server.getPort());
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+                 BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+                out.println("NEW");
+                assertTrue(in.readLine().startsWith("OK "));
+
+                // Cycle through the directions until the game ends
+                String[] directions = {"L", "D", "R", "U"};
+                String reply;
+                int move = 0;
+                do {
+                    out.println("MOVE " + directions[move++ % 4]);
+                    reply = in.readLine();
+                } while (reply.startsWith("OK ") && !reply.endsWith(" 1"));
+                assertEquals("ERR leaderboard unavailable", reply);
+
+                // Still connected, the score is retried, and the game was not marked recorded
+                out.println("MOVE L");
+                assertEquals("ERR leaderboard unavailable", in.readLine());
+                out.println("UNDO");
+                assertTrue(in.readLine().startsWith("OK 1 "));
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LeaderboardTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * A file channel that can be told to tear its next write, and to fail truncate
+     */
+    private static final class FaultyChannel extends FileChannel {
+        private final FileChannel file;
+        volatile boolean tearNextWrite;
+        volatile boolean failTruncate;
+
+        FaultyChannel(Path path) throws IOException {
+            file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (tearNextWrite) {
+                tearNextWrite = false;
+                ByteBuffer half = src.duplicate();
+                half.limit(src.position() + src.remaining() / 2);
+                file.write(half);
+                throw new IOException("Injected write failure");
+            }
+            return file.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) throw new IOException("Injected truncate failure");
+            file.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return file.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return file.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return file.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return file.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            file.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return file.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            file.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return file.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return file.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return file.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return file.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return file.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return file.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return file.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            file.close();
+        }
+    }
+
+    private static List<Leaderboard.Entry> submitAll(Leaderboard board, String prefix, int count) {
+        List<Leaderboard.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(board.submit(prefix + i, 1000 + i, 256, 100 + i, i).join());
+        }
+        return entries;
+    }
+
+    @Test
+    void failedWriteKeepsEveryAcknowledgedGame() throws IOException {
+        Path path = dir.resolve("scores.log");
+        List<Leaderboard.Entry> acknowledged = new ArrayList<>();
+        FaultyChannel channel = new FaultyChannel(path);
+        try (Leaderboard board = new Leaderboard(path, 100, channel)) {
+            acknowledged.addAll(submitAll(board, "before", 10));
+            channel.tearNextWrite = true;
+            assertThrows(CompletionException.class, () -> board.submit("torn", 99999, 2048, 1, 1).join());
+            acknowledged.addAll(submitAll(board, "after", 10));
+        }
+
+        try (Leaderboard reopened = new Leaderboard(path, 100)) {
+            assertEquals(acknowledged.size(), reopened.getGameCount());
+            for (Leaderboard.Entry entry : acknowledged) {
+                Leaderboard.Entry best = reopened.getBest(entry.getPlayer());
+                assertEquals(entry.getScore(), best.getScore());
+                assertEquals(entry.getSeed(), best.getSeed());
+            }
+            assertEquals(null, reopened.getBest("torn"));
+        }
+    }
+
+    @Test
+    void failedRollBackRejectsLaterGames() throws IOException {
+        Path path = dir.resolve("scores.log");
+        FaultyChannel channel = new FaultyChannel(path);
+        try (Leaderboard board = new Leaderboard(path, 100, channel)) {
+            submitAll(board, "before", 3);
+            channel.tearNextWrite = true;
+            channel.failTruncate = true;
+            assertThrows(CompletionException.class, () -> board.submit("torn", 99999, 2048, 1, 1).join());
+            assertThrows(IllegalStateException.class, () -> board.submit("later", 1, 2, 1, 1));
+        }
+    }
+
+    @Test
+    void tornTailIsCutOff() throws IOException {
+        Path path = dir.resolve("scores.log");
+        try (Leaderboard board = new Leaderboard(path, 100)) {
+            submitAll(board, "player", 5);
+        }
+        long intact = Files.size(path);
+        Files.write(path, new byte[] {7, 0, 'p', 'a', 'r'}, StandardOpenOption.APPEND);
+
+        try (Leaderboard reopened = new Leaderboard(path, 100)) {
+            assertEquals(5, reopened.getGameCount());
+        }
+        assertEquals(intact, Files.size(path));
+    }
+
+    @Test
+    void damageBeforeIntactRecordsIsNotTruncated() throws IOException {
+        Path path = dir.resolve("scores.log");
+        try (Leaderboard board = new Leaderboard(path, 100)) {
+            submitAll(board, "player", 5);
+        }
+        byte[] log = Files.readAllBytes(path);
+        log[8 + 4] ^= 1; // inside the first record's name
+        Files.write(path, log);
+
+        IOException e = assertThrows(IOException.class, () -> new Leaderboard(path, 100));
+        assertTrue(e.getMessage().contains("intact records follow"));
+        assertEquals(log.length, Files.size(path));
+    }
+}
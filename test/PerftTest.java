@@ -0,0 +1,30 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+    // From new Game(1): distinct positions, positions generated, legal moves and hash per ply
+    private static final long[][] EXPECTED = {
+        {87, 88, 3, 0xE7452006765D4C13L},
+        {1557, 8780, 315, 0x9938710FBC5D16ADL},
+        {10150, 154792, 5873, 0x15266505C413C970L},
+        {47664, 961664, 38726, 0x2A31010418A83862L},
+        {172106, 4308312, 183132, 0x193B465A049FCC60L},
+        {532835, 14830760, 664562, 0xEE0ECE8872B90099L},
+    };
+
+    @Test
+    void seedOneToDepthSix() {
+        Perft.Ply[] plies = Perft.run(new Game(1).getPackedBoard(), EXPECTED.length);
+        assertEquals(EXPECTED.length, plies.length);
+        for (int i = 0; i < EXPECTED.length; i++) {
+            Perft.Ply ply = plies[i];
+            String depth = "depth " + (i + 1);
+            assertEquals(i + 1, ply.getDepth());
+            assertEquals(EXPECTED[i][0], ply.getPositions(), depth + " positions");
+            assertEquals(EXPECTED[i][1], ply.getGenerated(), depth + " generated");
+            assertEquals(EXPECTED[i][2], ply.getMoves(), depth + " moves");
+            assertEquals(EXPECTED[i][3], ply.getHash(), depth + " hash");
+        }
+    }
+}